@@ -0,0 +1,68 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Aritmética do saldo no caminho quente: o BigDecimal de antes (compareTo + add/subtract a cada lançamento)
+// contra os centavos em long. O profiler de GC mostra a alocação por operação (gc.alloc.rate.norm).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DinheiroBenchmark {
+
+    private final BigDecimal depositoEmBigDecimal = new BigDecimal("10.50");
+    private final BigDecimal saqueEmBigDecimal = new BigDecimal("9.20");
+    private final long depositoEmCentavos = 1050L;
+    private final long saqueEmCentavos = 920L;
+
+    private BigDecimal saldoEmBigDecimal;
+    private long saldoEmCentavos;
+
+    @Setup(Level.Iteration)
+    public void zerarSaldos() {
+        saldoEmBigDecimal = BigDecimal.ZERO;
+        saldoEmCentavos = 0L;
+    }
+
+    // Depósito seguido de saque, como em registrarTransacao com validarValorTransferido e validarSaldoParaTransferencia
+    @Benchmark
+    public BigDecimal depositarESacarComBigDecimal() {
+        if (depositoEmBigDecimal.compareTo(BigDecimal.ZERO) <= 0) throw new IllegalArgumentException();
+        saldoEmBigDecimal = saldoEmBigDecimal.add(depositoEmBigDecimal);
+        if (saqueEmBigDecimal.compareTo(BigDecimal.ZERO) <= 0 || saqueEmBigDecimal.compareTo(saldoEmBigDecimal) > 0)
+            throw new IllegalArgumentException();
+        saldoEmBigDecimal = saldoEmBigDecimal.subtract(saqueEmBigDecimal);
+        return saldoEmBigDecimal;
+    }
+
+    @Benchmark
+    public long depositarESacarEmCentavos() {
+        if (depositoEmCentavos <= 0) throw new IllegalArgumentException();
+        saldoEmCentavos = Dinheiro.somar(saldoEmCentavos, depositoEmCentavos);
+        if (saqueEmCentavos <= 0 || saqueEmCentavos > saldoEmCentavos) throw new IllegalArgumentException();
+        saldoEmCentavos = Dinheiro.subtrair(saldoEmCentavos, saqueEmCentavos);
+        return saldoEmCentavos;
+    }
+
+    // Conversão na fronteira da API pública (uma vez por operação)
+    @Benchmark
+    public long converterParaCentavos() {
+        return Dinheiro.emCentavos(depositoEmBigDecimal);
+    }
+
+    // Texto do valor na descrição do extrato
+    @Benchmark
+    public String formatarComBigDecimal() {
+        return saqueEmBigDecimal.stripTrailingZeros().toPlainString();
+    }
+
+    @Benchmark
+    public String formatarEmCentavos() {
+        return Dinheiro.formatar(saqueEmCentavos);
+    }
+}
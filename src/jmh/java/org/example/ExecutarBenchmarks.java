@@ -0,0 +1,31 @@
+package org.example;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+// Ponto de entrada do benchmarks.jar: aceita as mesmas opções do JMH e liga sempre o profiler de GC,
+// para que toda execução reporte a taxa de alocação (gc.alloc.rate.norm = bytes alocados por operação).
+// Ex.: java -jar target/benchmarks.jar OperacoesDaConta -p quantidadeDeContas=1000 -t 4
+public class ExecutarBenchmarks {
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions opcoes = new CommandLineOptions(args);
+        if (opcoes.shouldHelp() || opcoes.shouldList()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(opcoes);
+        boolean gcJaPedido = opcoes.getProfilers().stream()
+                                   .anyMatch(profiler -> profiler.getKlass().equals(GCProfiler.class.getName())
+                                           || profiler.getKlass().equals("gc"));
+        if (!gcJaPedido) builder.addProfiler(GCProfiler.class);
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,74 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Extrato de uma conta com histórico longo: renderização (o caminho do verExtrato, sem o System.out),
+// consultas por intervalo, página e últimas transações, e o custo de um novo lançamento.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ExtratoBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int tamanhoDoExtrato;
+
+    @Param({"indexado", "compacto"})
+    public String tipoDoExtrato;
+
+    private ContaCorrente contaCorrente;
+    private LocalDateTime inicio;
+    private LocalDateTime fim;
+
+    @Setup(Level.Trial)
+    public void preencherExtrato() {
+        ContaCorrente.AccountBuilder builder = new ContaCorrente.AccountBuilder("1000", "extrato-" + tipoDoExtrato)
+                                                                .nomeTitular("Titular")
+                                                                .pix(new ArrayList<>());
+        if (tipoDoExtrato.equals("compacto")) builder.extratoCompacto();
+        contaCorrente = builder.build();
+        inicio = LocalDateTime.now().minusSeconds(1L);
+        for (int i = 1; i <= tamanhoDoExtrato; i++) {
+            if (i % 3 == 0) contaCorrente.sacar(BigDecimal.valueOf(i % 1_000 + 1, 2));
+            else contaCorrente.depositar(BigDecimal.valueOf(i % 10_000 + 1, 2));
+        }
+        fim = LocalDateTime.now().plusSeconds(1L);
+    }
+
+    @Benchmark
+    public void escreverExtratoEmTexto() throws IOException {
+        contaCorrente.escreverExtrato(Writer.nullWriter(), FormatoDoExtrato.TEXTO);
+    }
+
+    @Benchmark
+    public void escreverExtratoEmCsv() throws IOException {
+        contaCorrente.escreverExtrato(Writer.nullWriter(), FormatoDoExtrato.CSV);
+    }
+
+    @Benchmark
+    public PaginaDoExtrato consultarPrimeiraPagina() {
+        return contaCorrente.consultarExtrato(inicio, fim, null, 50);
+    }
+
+    @Benchmark
+    public List<Transacao> ultimasVinteTransacoes() {
+        return contaCorrente.ultimasTransacoes(20);
+    }
+
+    // Acrescenta ao extrato durante a medição: o tamanho informado é o ponto de partida
+    @Benchmark
+    public BigDecimal depositarNoExtratoLongo() {
+        contaCorrente.depositar(BigDecimal.ONE);
+        return contaCorrente.getSaldo();
+    }
+}
@@ -0,0 +1,56 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+// Custo da instrumentação no depósito: sem registrador (padrão), só contadores globais e com contadores por conta.
+// Com várias threads, mostra a disputa nos contadores (LongAdder) e nos histogramas de latência.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricasBenchmark {
+
+    @Param({"nenhuma", "globais", "porConta"})
+    public String metricas;
+
+    @State(Scope.Thread)
+    public static class Conta {
+
+        private ContaCorrente contaCorrente;
+
+        @Setup(Level.Trial)
+        public void abrirConta() {
+            contaCorrente = new ContaCorrente.AccountBuilder("1000", "metricas-" + Thread.currentThread().getId())
+                                             .nomeTitular("Titular")
+                                             .pix(new ArrayList<>())
+                                             .extratoCompacto()
+                                             .build();
+        }
+    }
+
+    private final BigDecimal deposito = new BigDecimal("0.01");
+
+    @Setup(Level.Trial)
+    public void instalarMetricas() {
+        if (metricas.equals("globais")) ContaCorrente.usarMetricas(new MetricasEmMemoria());
+        else if (metricas.equals("porConta")) ContaCorrente.usarMetricas(new MetricasEmMemoria(true));
+        else ContaCorrente.usarMetricas(null);
+    }
+
+    @TearDown(Level.Trial)
+    public void removerMetricas() {
+        ContaCorrente.usarMetricas(null);
+    }
+
+    @Benchmark
+    public BigDecimal depositar(Conta conta) {
+        conta.contaCorrente.depositar(deposito);
+        return deposito;
+    }
+}
@@ -0,0 +1,136 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Operações quentes da conta corrente sobre um banco com muitas contas: depósito, saque, pix, TED e resolução de
+// chaves. Vazão (Throughput) e percentis de latência (SampleTime) em microssegundos; as variantes "Concorrente"
+// rodam com 4 threads disputando as mesmas contas.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class OperacoesDaContaBenchmark {
+
+    private static final String AGENCIA = "1000";
+    private static final BigDecimal VALOR = new BigDecimal("0.01");
+
+    @Param({"1000", "100000", "1000000"})
+    public int quantidadeDeContas;
+
+    @Param({"1", "5"})
+    public int chavesPixPorConta;
+
+    private ContaCorrente[] contas;
+    private String[] numerosDasContas;
+    private String[] chavesPix;
+    private DiretorioPix diretorioPix;
+
+    @Setup(Level.Trial)
+    public void criarContas() {
+        contas = new ContaCorrente[quantidadeDeContas];
+        numerosDasContas = new String[quantidadeDeContas];
+        chavesPix = new String[quantidadeDeContas * chavesPixPorConta];
+        diretorioPix = new DiretorioPix();
+        for (int i = 0; i < quantidadeDeContas; i++) {
+            numerosDasContas[i] = String.format("%07d-0", i);
+            List<String> chavesDaConta = new ArrayList<>(chavesPixPorConta);
+            for (int k = 0; k < chavesPixPorConta; k++) {
+                String chavePix = "cliente" + i + "-" + k + "@banco.com";
+                chavesPix[i * chavesPixPorConta + k] = chavePix;
+                chavesDaConta.add(chavePix);
+            }
+            contas[i] = new ContaCorrente.AccountBuilder(AGENCIA, numerosDasContas[i])
+                                         .nomeTitular("Cliente " + i)
+                                         .pix(chavesDaConta)
+                                         .extratoCompacto()
+                                         .build();
+            contas[i].depositar(BigDecimal.valueOf(1_000_000));
+            for (String chavePix : chavesDaConta) diretorioPix.cadastrar(chavePix, contas[i]);
+        }
+    }
+
+    // Sorteio de contas por thread, sem disputa no gerador
+    @State(Scope.Thread)
+    public static class Sorteio {
+
+        private final SplittableRandom aleatorio = new SplittableRandom();
+
+        int conta(int quantidade) {
+            return aleatorio.nextInt(quantidade);
+        }
+
+        // Outra conta, diferente da informada
+        int outraConta(int origem, int quantidade) {
+            return (origem + 1 + aleatorio.nextInt(quantidade - 1)) % quantidade;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal depositar(Sorteio sorteio) {
+        ContaCorrente contaCorrente = contas[sorteio.conta(quantidadeDeContas)];
+        contaCorrente.depositar(VALOR);
+        return contaCorrente.getSaldo();
+    }
+
+    @Benchmark
+    public BigDecimal sacar(Sorteio sorteio) {
+        ContaCorrente contaCorrente = contas[sorteio.conta(quantidadeDeContas)];
+        contaCorrente.sacar(VALOR);
+        return contaCorrente.getSaldo();
+    }
+
+    @Benchmark
+    public BigDecimal transferirPorPix(Sorteio sorteio) throws CloneNotSupportedException {
+        return transferirPorPix(sorteio, quantidadeDeContas);
+    }
+
+    @Benchmark
+    public BigDecimal transferirPorAgenciaEConta(Sorteio sorteio) throws CloneNotSupportedException {
+        int origem = sorteio.conta(quantidadeDeContas), destino = sorteio.outraConta(origem, quantidadeDeContas);
+        contas[origem].transferir(AGENCIA, numerosDasContas[destino], VALOR);
+        return contas[origem].getSaldo();
+    }
+
+    @Benchmark
+    public ContaCorrente resolverPix(Sorteio sorteio) {
+        return diretorioPix.resolver(chavesPix[sorteio.conta(chavesPix.length)]);
+    }
+
+    @Benchmark
+    public ContaCorrente resolverAgenciaEConta(Sorteio sorteio) {
+        return ContaCorrente.buscarConta(AGENCIA, numerosDasContas[sorteio.conta(quantidadeDeContas)]).orElse(null);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public BigDecimal depositarConcorrente(Sorteio sorteio) {
+        return depositar(sorteio);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public BigDecimal transferirPorPixConcorrente(Sorteio sorteio) throws CloneNotSupportedException {
+        return transferirPorPix(sorteio, quantidadeDeContas);
+    }
+
+    // Concentra as transferências em poucas contas, para medir a disputa pelas travas
+    @Benchmark
+    @Threads(4)
+    public BigDecimal transferirPorPixEntreDezContas(Sorteio sorteio) throws CloneNotSupportedException {
+        return transferirPorPix(sorteio, Math.min(10, quantidadeDeContas));
+    }
+
+    private BigDecimal transferirPorPix(Sorteio sorteio, int universo) throws CloneNotSupportedException {
+        int origem = sorteio.conta(universo), destino = sorteio.outraConta(origem, universo);
+        contas[origem].transferir(chavesPix[destino * chavesPixPorConta], VALOR);
+        return contas[origem].getSaldo();
+    }
+}
@@ -0,0 +1,146 @@
+package org.example;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Fila de transferências agendadas, ordenada pela data de execução. As vencidas são efetivadas em lotes,
+// em segundo plano (iniciar) ou sob demanda (executarVencidos), segundo o relógio informado.
+public class AgendadorDeTransferencias {
+
+    private static final int TAMANHO_DO_LOTE = 1_024;
+
+    private final Clock relogio;
+    // Ordenada pela data e, no empate, pelo id (único): o cancelamento tira o agendamento da fila em O(log n)
+    private final TreeSet<Agendamento> fila = new TreeSet<>(
+            Comparator.comparing(Agendamento::getDataAgendada).thenComparingLong(Agendamento::getId));
+    private final Map<Long, Agendamento> pendentes = new HashMap<>();
+    private final Map<ContaCorrente, Map<Long, Agendamento>> pendentesPorConta = new HashMap<>();
+    private final Set<Agendamento> emExecucao = new HashSet<>(); // Retirados da fila e ainda não efetivados
+    private long proximoId = 1L;
+    private ScheduledExecutorService executor;
+    private volatile RuntimeException ultimaFalha; // Falha inesperada mais recente de uma efetivação
+
+    public AgendadorDeTransferencias(Clock relogio) {
+        this.relogio = relogio;
+    }
+
+    synchronized Agendamento agendar(ContaCorrente contaOrigem, ContaCorrente contaDestinatario, TipoTransacao tipoTransacao,
+                                     long valor, LocalDateTime dataAgendada) {
+        Agendamento agendamento =
+                new Agendamento(proximoId++, contaOrigem, contaDestinatario, tipoTransacao, valor, dataAgendada);
+        fila.add(agendamento);
+        pendentes.put(agendamento.getId(), agendamento);
+        pendentesPorConta.computeIfAbsent(contaOrigem, contaCorrente -> new LinkedHashMap<>()).put(agendamento.getId(), agendamento);
+        return agendamento;
+    }
+
+    // Cancela um agendamento pendente da conta (nulo se não houver), tirando-o da fila
+    synchronized Agendamento cancelar(ContaCorrente contaOrigem, long id) {
+        Agendamento agendamento = pendentes.get(id);
+        if (agendamento == null || agendamento.getContaOrigem() != contaOrigem) return null;
+        agendamento.setSituacao(Agendamento.Situacao.CANCELADO);
+        fila.remove(agendamento);
+        removerPendente(agendamento);
+        return agendamento;
+    }
+
+    LocalDateTime agora() {
+        return LocalDateTime.now(relogio);
+    }
+
+    synchronized List<Agendamento> listar(ContaCorrente contaOrigem) {
+        Map<Long, Agendamento> agendamentos = pendentesPorConta.get(contaOrigem);
+        if (agendamentos == null) return Collections.emptyList();
+        List<Agendamento> lista = new ArrayList<>(agendamentos.values());
+        lista.sort(fila.comparator());
+        return lista;
+    }
+
+    // Pendentes, incluindo os já retirados da fila que ainda não foram efetivados
+    synchronized List<Agendamento> listarPendentes() {
+        List<Agendamento> lista = new ArrayList<>(pendentes.values());
+        emExecucao.stream().filter(agendamento -> agendamento.getSituacao() == Agendamento.Situacao.PENDENTE)
+                .forEach(lista::add);
+        lista.sort(fila.comparator());
+        return lista;
+    }
+
+    // Falha inesperada mais recente ao efetivar um agendamento (nula se não houve); o agendamento fica recusado
+    public RuntimeException getUltimaFalha() {
+        return ultimaFalha;
+    }
+
+    public synchronized int quantidadePendente() {
+        return pendentes.size();
+    }
+
+    // Efetiva todos os agendamentos vencidos, um lote por vez, fora da trava do agendador
+    public int executarVencidos() {
+        int executados = 0;
+        List<Agendamento> lote;
+        while (!(lote = retirarLoteVencido()).isEmpty()) {
+            try {
+                for (Agendamento agendamento : lote) {
+                    try {
+                        // A conta de origem marca o agendamento como executado ou, sem saldo no vencimento, recusado
+                        agendamento.getContaOrigem().efetivarAgendamento(agendamento);
+                    } catch (RuntimeException falha) {
+                        // Outras falhas (ex.: estouro do saldo, diário de operações) não interrompem o restante do lote
+                        if (agendamento.getSituacao() == Agendamento.Situacao.PENDENTE)
+                            agendamento.setSituacao(Agendamento.Situacao.RECUSADO);
+                        if (!(falha instanceof IllegalArgumentException)) ultimaFalha = falha;
+                    }
+                    if (agendamento.getSituacao() == Agendamento.Situacao.EXECUTADO) executados++;
+                }
+            } finally {
+                concluirLote(lote);
+            }
+        }
+        return executados;
+    }
+
+    private synchronized List<Agendamento> retirarLoteVencido() {
+        LocalDateTime agora = agora();
+        List<Agendamento> lote = new ArrayList<>();
+        while (lote.size() < TAMANHO_DO_LOTE && !fila.isEmpty() && !fila.first().getDataAgendada().isAfter(agora)) {
+            Agendamento agendamento = fila.pollFirst();
+            removerPendente(agendamento);
+            lote.add(agendamento);
+        }
+        emExecucao.addAll(lote);
+        return lote;
+    }
+
+    private synchronized void concluirLote(List<Agendamento> lote) {
+        emExecucao.removeAll(lote);
+    }
+
+    private void removerPendente(Agendamento agendamento) {
+        pendentes.remove(agendamento.getId());
+        Map<Long, Agendamento> agendamentos = pendentesPorConta.get(agendamento.getContaOrigem());
+        agendamentos.remove(agendamento.getId());
+        if (agendamentos.isEmpty()) pendentesPorConta.remove(agendamento.getContaOrigem());
+    }
+
+    // Verifica periodicamente a fila em uma thread de segundo plano
+    public synchronized void iniciar(Duration intervalo) {
+        if (executor != null) return;
+        executor = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "agendador-de-transferencias");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::executarVencidos, intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void encerrar() {
+        if (executor == null) return;
+        executor.shutdown();
+        executor = null;
+    }
+}
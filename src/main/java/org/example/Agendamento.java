@@ -0,0 +1,30 @@
+package org.example;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Transferência (pix ou TED) programada, aguardando execução pelo agendador
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+@Getter
+public class Agendamento {
+
+    public enum Situacao { PENDENTE, EXECUTADO, CANCELADO, RECUSADO }
+
+    private final long id;
+    @Getter(AccessLevel.PACKAGE)
+    private final ContaCorrente contaOrigem;
+    @Getter(AccessLevel.PACKAGE)
+    private final ContaCorrente contaDestinatario;
+    private final TipoTransacao tipoTransacao;
+    @Getter(AccessLevel.PACKAGE)
+    private final long valorEmCentavos;
+    private final LocalDateTime dataAgendada;
+    @Setter(AccessLevel.PACKAGE)
+    private volatile Situacao situacao = Situacao.PENDENTE;
+
+    public BigDecimal getValor() {
+        return Dinheiro.emBigDecimal(valorEmCentavos);
+    }
+}
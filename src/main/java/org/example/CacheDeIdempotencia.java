@@ -0,0 +1,181 @@
+package org.example;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+// Respostas das operações idempotentes, por conta de origem e chave de idempotência: a repetição de um pedido (ex.: o
+// cliente reenviou após um timeout) recebe a resposta original em vez de executar de novo. Repetições que chegam
+// enquanto o original ainda executa esperam por ele.
+// Limitado em quantidade e em validade: segmentos com trava própria. Os pedidos em execução ficam à parte e os concluídos
+// entram em ordem de conclusão (LinkedHashMap), então as entradas vencidas e as excedentes saem pelo início sem varrer
+// as que ainda executam. Uma chave descartada volta a executar.
+final class CacheDeIdempotencia {
+
+    private static final int SEGMENTOS_NO_MAXIMO = 64;
+
+    private final Segmento[] segmentos;
+    private final long validadeEmNanos;
+    private final LongSupplier relogio; // Em nanossegundos
+
+    CacheDeIdempotencia(int capacidade, Duration validade) throws IllegalArgumentException {
+        this(capacidade, validade, System::nanoTime);
+    }
+
+    CacheDeIdempotencia(int capacidade, Duration validade, LongSupplier relogio) throws IllegalArgumentException {
+        if (capacidade <= 0 || validade.isNegative() || validade.isZero())
+            throw new IllegalArgumentException("Cache de idempotência inválido! Informe capacidade e validade positivas.");
+        // Poucos segmentos em caches pequenos, para que a capacidade total seja respeitada com folga mínima
+        int quantidade = Math.min(SEGMENTOS_NO_MAXIMO, Integer.highestOneBit(Math.max(1, capacidade / 1024)));
+        this.segmentos = new Segmento[quantidade];
+        int capacidadePorSegmento = (capacidade + quantidade - 1) / quantidade;
+        for (int indice = 0; indice < quantidade; indice++) segmentos[indice] = new Segmento(capacidadePorSegmento);
+        this.validadeEmNanos = validade.toNanos();
+        this.relogio = relogio;
+    }
+
+    interface Execucao<E extends Exception> {
+        RespostaDaOperacao executar() throws E;
+    }
+
+    // Executa a operação apenas na primeira vez em que a chave aparece; a assinatura (tipo, destinatário e valor)
+    // impede que a mesma chave seja reaproveitada em uma operação diferente.
+    // Resposta concluída ou recusada fica guardada; falha inesperada (outra exceção) libera a chave para nova tentativa.
+    <E extends Exception> RespostaDaOperacao executar(ContaCorrente contaCorrente, String chaveDeIdempotencia,
+                                                      String assinatura, Execucao<E> execucao) throws E {
+        Chave chave = new Chave(contaCorrente.getAgencia(), contaCorrente.getConta(), chaveDeIdempotencia);
+        Segmento segmento = segmentos[chave.hash & (segmentos.length - 1)];
+        while (true) {
+            Registro registro = new Registro(assinatura);
+            Registro original = segmento.reservar(chave, registro, relogio.getAsLong(), validadeEmNanos);
+            if (original == null) return executarPrimeiraVez(segmento, chave, registro, execucao);
+            if (!original.assinatura.equals(assinatura))
+                throw new IllegalArgumentException("Chave de idempotência já usada em outra operação: " + chaveDeIdempotencia + ".");
+            RespostaDaOperacao resposta = original.resposta.join();
+            if (resposta != null) return resposta;
+            // O original falhou sem resposta e liberou a chave: tenta de novo
+        }
+    }
+
+    int tamanho() {
+        int tamanho = 0;
+        for (Segmento segmento : segmentos) tamanho += segmento.tamanho();
+        return tamanho;
+    }
+
+    private <E extends Exception> RespostaDaOperacao executarPrimeiraVez(Segmento segmento, Chave chave,
+                                                                         Registro registro, Execucao<E> execucao)
+            throws E {
+        RespostaDaOperacao resposta;
+        try {
+            resposta = execucao.executar();
+        } catch (IllegalArgumentException recusa) {
+            resposta = RespostaDaOperacao.recusada(recusa.getMessage());
+        } catch (Exception | Error falha) {
+            segmento.liberar(chave, registro);
+            registro.resposta.complete(null);
+            throw falha;
+        }
+        segmento.concluir(chave, registro, relogio.getAsLong());
+        registro.resposta.complete(resposta);
+        return resposta;
+    }
+
+    private static final class Segmento {
+
+        private final int capacidade;
+        private final Map<Chave, Registro> emExecucao = new HashMap<>();
+        private final LinkedHashMap<Chave, Registro> concluidos = new LinkedHashMap<>(); // Em ordem de conclusão
+
+        private Segmento(int capacidade) {
+            this.capacidade = capacidade;
+        }
+
+        // Registra o novo pedido e devolve nulo, ou devolve o registro original ainda válido da mesma chave.
+        // Pedidos ainda em execução nunca saem, nem vencidos nem excedentes: descartá-los deixaria uma repetição executar
+        // a operação de novo ao mesmo tempo (ex.: débito em dobro). Se só restarem pedidos em execução, o segmento passa
+        // da capacidade até que eles terminem.
+        private synchronized Registro reservar(Chave chave, Registro registro, long agora, long validadeEmNanos) {
+            Iterator<Registro> maisAntigos = concluidos.values().iterator();
+            while (maisAntigos.hasNext() && agora - maisAntigos.next().concluidoEm >= validadeEmNanos)
+                maisAntigos.remove();
+            Registro original = emExecucao.get(chave);
+            if (original == null) original = concluidos.get(chave);
+            if (original != null) return original;
+            emExecucao.put(chave, registro);
+            descartarExcedentes();
+            return null;
+        }
+
+        // Chamado antes de completar a resposta: uma repetição encontra o registro em um dos dois mapas, nunca em nenhum
+        private synchronized void concluir(Chave chave, Registro registro, long agora) {
+            emExecucao.remove(chave, registro);
+            registro.concluidoEm = agora;
+            concluidos.put(chave, registro);
+            descartarExcedentes();
+        }
+
+        private void descartarExcedentes() {
+            Iterator<Registro> maisAntigos = concluidos.values().iterator();
+            while (emExecucao.size() + concluidos.size() > capacidade && maisAntigos.hasNext()) {
+                maisAntigos.next();
+                maisAntigos.remove();
+            }
+        }
+
+        private synchronized void liberar(Chave chave, Registro registro) {
+            emExecucao.remove(chave, registro);
+        }
+
+        private synchronized int tamanho() {
+            return emExecucao.size() + concluidos.size();
+        }
+    }
+
+    private static final class Registro {
+
+        private final String assinatura;
+        private long concluidoEm; // Relógio do cache, atribuído sob a trava do segmento
+        private final CompletableFuture<RespostaDaOperacao> resposta = new CompletableFuture<>();
+
+        private Registro(String assinatura) {
+            this.assinatura = assinatura;
+        }
+    }
+
+    // A mesma chave de idempotência em contas diferentes identifica pedidos diferentes. A conta entra pela agência e
+    // número, e não pelo objeto: um novo cadastro da mesma agência e conta continua vendo os pedidos já respondidos.
+    private static final class Chave {
+
+        private final String agencia;
+        private final String conta;
+        private final String chaveDeIdempotencia;
+        private final int hash;
+
+        private Chave(String agencia, String conta, String chaveDeIdempotencia) {
+            this.agencia = agencia;
+            this.conta = conta;
+            this.chaveDeIdempotencia = Objects.requireNonNull(chaveDeIdempotencia, "chaveDeIdempotencia");
+            int hash = Objects.hash(agencia, conta, chaveDeIdempotencia);
+            this.hash = hash ^ (hash >>> 16);
+        }
+
+        @Override
+        public boolean equals(Object outro) {
+            if (!(outro instanceof Chave)) return false;
+            Chave chave = (Chave) outro;
+            return agencia.equals(chave.agencia) && conta.equals(chave.conta)
+                    && chaveDeIdempotencia.equals(chave.chaveDeIdempotencia);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Páginas do extrato já formatadas e codificadas em UTF-8, por extrato, formato e número da página (blocos fixos de
+// LANCAMENTOS_POR_PAGINA lançamentos), compartilhadas por todas as contas e limitadas em bytes (LRU).
+// O extrato só cresce pelo fim, exceto quando um lançamento entra antes de agendamentos futuros: lançamentos no fim
+// estendem a última página guardada, e uma inserção antes do fim muda a versão apenas das páginas deslocadas
+// (ver Extrato.versaoDaPagina). Páginas desatualizadas são substituídas na próxima leitura ou saem pelo LRU.
+final class CacheDePaginasDoExtrato {
+
+    static final int LANCAMENTOS_POR_PAGINA = 64;
+
+    private static final int SEGMENTOS_NO_MAXIMO = 16;
+    private static final int BYTES_POR_ENTRADA = 96; // Chave, entrada do mapa e Pagina, além das linhas
+
+    private final Segmento[] segmentos;
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder extensoes = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+
+    CacheDePaginasDoExtrato(long capacidadeEmBytes) throws IllegalArgumentException {
+        if (capacidadeEmBytes <= 0)
+            throw new IllegalArgumentException("Cache do extrato inválido! Informe uma capacidade positiva.");
+        // Um segmento por MB, até o máximo: caches pequenos respeitam a capacidade sem folga
+        int quantidade = (int) Math.min(SEGMENTOS_NO_MAXIMO, Long.highestOneBit(Math.max(1L, capacidadeEmBytes >> 20)));
+        this.segmentos = new Segmento[quantidade];
+        for (int indice = 0; indice < quantidade; indice++) segmentos[indice] = new Segmento(capacidadeEmBytes / quantidade);
+    }
+
+    // Escreve o extrato completo no destino. Sob a trava da conta são lidos apenas o tamanho e as versões das páginas; a
+    // busca nos segmentos acontece fora dela. Os lançamentos das páginas ainda não formatadas são copiados sob a trava
+    // de novo, se as versões não mudaram (senão tudo recomeça); a formatação e a escrita acontecem fora dela.
+    void escrever(Extrato extrato, Object trava, FormatoDoExtrato formato, OutputStream destino) throws IOException {
+        byte[][] partes;
+        List<Pendente> pendentes = new ArrayList<>();
+        while (true) {
+            int tamanho;
+            int[] versoes;
+            synchronized (trava) {
+                tamanho = extrato.tamanho();
+                versoes = new int[(tamanho + LANCAMENTOS_POR_PAGINA - 1) / LANCAMENTOS_POR_PAGINA];
+                for (int numero = 0; numero < versoes.length; numero++) versoes[numero] = extrato.versaoDaPagina(numero);
+            }
+
+            partes = new byte[versoes.length][];
+            pendentes.clear();
+            for (int numero = 0; numero < partes.length; numero++) {
+                Chave chave = new Chave(extrato, formato, numero);
+                int quantidade = Math.min(tamanho - numero * LANCAMENTOS_POR_PAGINA, LANCAMENTOS_POR_PAGINA);
+                Pagina guardada = segmento(chave).buscar(chave);
+                if (guardada != null && guardada.versao == versoes[numero] && guardada.quantidade == quantidade)
+                    partes[numero] = guardada.bytes;
+                else if (guardada != null && guardada.versao == versoes[numero] && guardada.quantidade < quantidade)
+                    pendentes.add(new Pendente(chave, versoes[numero], quantidade, guardada.quantidade, guardada.bytes));
+                else
+                    pendentes.add(new Pendente(chave, versoes[numero], quantidade, 0, null));
+            }
+
+            if (copiarPendentes(extrato, trava, pendentes)) {
+                acertos.add(partes.length - pendentes.size());
+                for (Pendente pendente : pendentes) (pendente.anterior != null ? extensoes : faltas).increment();
+                break;
+            }
+        }
+
+        for (Pendente pendente : pendentes) {
+            byte[] bytes = formatar(pendente.anterior, pendente.transacoes, formato);
+            segmento(pendente.chave).guardar(pendente.chave, new Pagina(pendente.versao, pendente.quantidade, bytes));
+            partes[pendente.chave.numero] = bytes;
+        }
+        StringBuilder cabecalho = new StringBuilder();
+        formato.escreverCabecalho(cabecalho);
+        destino.write(cabecalho.toString().getBytes(StandardCharsets.UTF_8));
+        for (byte[] parte : partes) destino.write(parte);
+    }
+
+    // Falso se alguma página pendente mudou de versão desde a leitura: o que já estava formatado nela não vale mais.
+    // Lançamentos acrescentados ao fim depois da leitura não mudam as versões e ficam de fora (tamanho lido antes).
+    private static boolean copiarPendentes(Extrato extrato, Object trava, List<Pendente> pendentes) {
+        if (pendentes.isEmpty()) return true;
+        synchronized (trava) {
+            for (Pendente pendente : pendentes)
+                if (extrato.versaoDaPagina(pendente.chave.numero) != pendente.versao) return false;
+            for (Pendente pendente : pendentes) {
+                int inicio = pendente.chave.numero * LANCAMENTOS_POR_PAGINA;
+                pendente.transacoes = extrato.copiar(inicio + pendente.formatados, inicio + pendente.quantidade);
+            }
+        }
+        return true;
+    }
+
+    FotografiaDoCacheDoExtrato fotografar() {
+        int paginas = 0;
+        long bytes = 0L;
+        for (Segmento segmento : segmentos) {
+            synchronized (segmento) {
+                paginas += segmento.paginas.size();
+                bytes += segmento.bytes;
+            }
+        }
+        return new FotografiaDoCacheDoExtrato(acertos.sum(), extensoes.sum(), faltas.sum(), paginas, bytes);
+    }
+
+    private Segmento segmento(Chave chave) {
+        return segmentos[chave.hash & (segmentos.length - 1)];
+    }
+
+    // Linhas novas acrescentadas às já codificadas da página (nulas quando a página é formatada do zero)
+    private static byte[] formatar(byte[] anteriores, List<Transacao> transacoes, FormatoDoExtrato formato) {
+        StringBuilder linhas = new StringBuilder(64 * transacoes.size());
+        try {
+            for (Transacao transacao : transacoes) formato.escrever(transacao, linhas);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException); // StringBuilder não lança IOException
+        }
+        byte[] novas = linhas.toString().getBytes(StandardCharsets.UTF_8);
+        if (anteriores == null) return novas;
+        byte[] pagina = Arrays.copyOf(anteriores, anteriores.length + novas.length);
+        System.arraycopy(novas, 0, pagina, anteriores.length, novas.length);
+        return pagina;
+    }
+
+    private static final class Segmento {
+
+        private final long capacidadeEmBytes;
+        private final LinkedHashMap<Chave, Pagina> paginas = new LinkedHashMap<>(16, 0.75f, true); // Ordem de acesso
+        private long bytes;
+
+        private Segmento(long capacidadeEmBytes) {
+            this.capacidadeEmBytes = capacidadeEmBytes;
+        }
+
+        private synchronized Pagina buscar(Chave chave) {
+            return paginas.get(chave);
+        }
+
+        private synchronized void guardar(Chave chave, Pagina pagina) {
+            Pagina anterior = paginas.put(chave, pagina);
+            bytes += pagina.tamanhoEmBytes() - (anterior == null ? 0L : anterior.tamanhoEmBytes());
+            // As menos usadas recentemente saem primeiro; uma página maior que o segmento inteiro não fica
+            Iterator<Pagina> menosUsadas = paginas.values().iterator();
+            while (bytes > capacidadeEmBytes && menosUsadas.hasNext()) {
+                bytes -= menosUsadas.next().tamanhoEmBytes();
+                menosUsadas.remove();
+            }
+        }
+    }
+
+    private static final class Pagina {
+
+        private final int versao;
+        private final int quantidade; // Lançamentos já formatados (a última página pode estar incompleta)
+        private final byte[] bytes;
+
+        private Pagina(int versao, int quantidade, byte[] bytes) {
+            this.versao = versao;
+            this.quantidade = quantidade;
+            this.bytes = bytes;
+        }
+
+        private long tamanhoEmBytes() {
+            return bytes.length + BYTES_POR_ENTRADA;
+        }
+    }
+
+    private static final class Pendente {
+
+        private final Chave chave;
+        private final int versao;
+        private final int quantidade;
+        private final int formatados; // Lançamentos já formatados na página guardada (em anterior)
+        private final byte[] anterior;
+        private List<Transacao> transacoes;
+
+        private Pendente(Chave chave, int versao, int quantidade, int formatados, byte[] anterior) {
+            this.chave = chave;
+            this.versao = versao;
+            this.quantidade = quantidade;
+            this.formatados = formatados;
+            this.anterior = anterior;
+        }
+    }
+
+    private static final class Chave {
+
+        private final Extrato extrato;
+        private final FormatoDoExtrato formato;
+        private final int numero;
+        private final int hash;
+
+        private Chave(Extrato extrato, FormatoDoExtrato formato, int numero) {
+            this.extrato = extrato;
+            this.formato = formato;
+            this.numero = numero;
+            int hash = (31 * System.identityHashCode(extrato) + formato.ordinal()) * 31 + numero;
+            this.hash = hash ^ (hash >>> 16);
+        }
+
+        @Override
+        public boolean equals(Object outro) {
+            if (!(outro instanceof Chave)) return false;
+            Chave chave = (Chave) outro;
+            return extrato == chave.extrato && formato == chave.formato && numero == chave.numero;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -2,29 +2,65 @@ package org.example;
 
 import lombok.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 
 @RequiredArgsConstructor
 public class ContaCorrente {
 
     @NonNull
+    @Getter(AccessLevel.PACKAGE)
     private final String agencia;
     @NonNull
+    @Getter(AccessLevel.PACKAGE)
     private final String conta;
+    @Getter(AccessLevel.PACKAGE)
     private String nomeTitular;
-    @Getter
-    private List<String> pix;
+    private List<String> pix; // Alterada apenas sob o monitor do registro, junto com o diretório pix
 //    private Map<LocalDateTime, String> extrato;
-    private List<Transacao> extrato; // Novo extrato
-    @Getter
-    private BigDecimal saldo;
+    @Getter(AccessLevel.PACKAGE)
+    private Extrato extrato; // Extrato em ordem cronológica
+    private volatile long saldo; // Em centavos (ver Dinheiro)
+
+    // Identificador atribuído pelo registro de contas
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    private int id;
+
+    // Trava por conta: protege saldo e extrato; transferências travam as duas contas em ordem fixa
+    private final Object trava = new Object();
 
     // Estrutura de dados estática para armazenar os clientes
-    private static final List<ContaCorrente> listaClientes = new ArrayList<>();
+    private static final RegistroDeContas registroDeContas = new RegistroDeContas();
+
+    // Agendador das transferências programadas (criado e iniciado sob demanda)
+    private static volatile AgendadorDeTransferencias agendador;
+
+    // Diário de operações (persistência); nulo enquanto o estado vive apenas em memória
+    private static volatile DiarioDeOperacoes diario;
+
+    // Respostas das operações idempotentes (criado sob demanda, ver usarCacheDeIdempotencia)
+    private static CacheDeIdempotencia cacheDeIdempotencia;
+    private static final int CAPACIDADE_PADRAO_DA_IDEMPOTENCIA = 1 << 20; // Cerca de 300 MB no limite
+    private static final Duration VALIDADE_PADRAO_DA_IDEMPOTENCIA = Duration.ofHours(1L);
+
+    // Páginas do extrato já formatadas, de todas as contas (criado sob demanda, ver usarCacheDoExtrato)
+    private static volatile CacheDePaginasDoExtrato cacheDoExtrato;
+    private static final long CAPACIDADE_PADRAO_DO_CACHE_DO_EXTRATO = 64L << 20; // 64 MB
+
+    // Métricas operacionais; o registrador padrão não faz nada
+    private static volatile RegistradorDeMetricas metricas = RegistradorDeMetricas.NENHUM;
 
     // Builder implementation
     public static class AccountBuilder {
@@ -34,8 +70,8 @@ public class ContaCorrente {
         private String nomeTitular = "";
         private List<String> pix = new ArrayList<>();
         private final BigDecimal saldo = BigDecimal.ZERO;
+        private boolean extratoCompacto = false;
 //        private final Map<LocalDateTime, String> extrato = new HashMap<>();
-        private final List<Transacao> extrato = new ArrayList<>();
 
         public AccountBuilder(String agencia, String conta) {
             this.agencia = agencia;
@@ -52,8 +88,28 @@ public class ContaCorrente {
             return this;
         }
 
+        // Extrato colunar, bem mais econômico em memória para contas com histórico muito longo
+        public AccountBuilder extratoCompacto() {
+            this.extratoCompacto = true;
+            return this;
+        }
+
         public ContaCorrente build() {
-            listaClientes.add(new ContaCorrente(this)); // -> Certo!
+            // A mesma instância é registrada e devolvida, dispensando a sincronização posterior do registro
+            ContaCorrente contaCorrente = new ContaCorrente(this);
+            executarNoDiario(() -> {
+                registroDeContas.registrar(contaCorrente);
+                DiarioDeOperacoes diarioAtual = diario;
+                if (diarioAtual != null) {
+                    diarioAtual.contaCriada(contaCorrente);
+                    contaCorrente.pix.forEach(chavePix -> diarioAtual.pixAdicionado(contaCorrente, chavePix));
+                }
+            });
+            return contaCorrente;
+        }
+
+        // Conta ainda fora do registro, para a carga em lote (ver registrarEmLote)
+        ContaCorrente buildSemRegistrar() {
             return new ContaCorrente(this);
         }
     }
@@ -63,28 +119,41 @@ public class ContaCorrente {
         this.agencia     = aBuilder.agencia;
         this.conta       = aBuilder.conta;
         this.nomeTitular = aBuilder.nomeTitular;
-        this.pix         = aBuilder.pix;
-        this.saldo       = aBuilder.saldo;
+        this.pix         = new CopyOnWriteArrayList<>(aBuilder.pix);
+        this.saldo       = Dinheiro.emCentavos(aBuilder.saldo);
 //        this.extrato     = aBuilder.extrato;
-        this.extrato    = aBuilder.extrato;
-        // listaClientes.add(new ContaCorrente(aBuilder)); -> Errado!
+        this.extrato    = aBuilder.extratoCompacto ? new ExtratoCompacto(this) : new ExtratoIndexado(this);
     }
 
     // Diretamente no caixa eletrônico:
     public void sacar(BigDecimal saque) throws IllegalArgumentException {
-        validarSaldoParaTransferencia(saque);
-        registrarTransacao(new Transacao(LocalDateTime.now(), TipoTransacao.SAQUE, "SAQUE: -" + saque + ";"), saque);
+        long inicio = iniciarMedicao();
+        long valor = Dinheiro.emCentavos(saque);
+        executarNoDiario(() -> {
+            synchronized (trava) {
+                validarSaldoParaTransferencia(TipoTransacao.SAQUE, valor);
+                registrarTransacao(agora(), TipoTransacao.SAQUE, valor);
+            }
+        });
+        concluirMedicao(TipoTransacao.SAQUE, inicio);
     }
 
     // Diretamente no caixa eletrônico:
     public void depositar(BigDecimal deposito) throws IllegalArgumentException {
-        registrarTransacao(new Transacao(LocalDateTime.now(), TipoTransacao.DEPOSITO,"DEPÓSITO: +" + deposito), deposito);
+        long inicio = iniciarMedicao();
+        long valor = Dinheiro.emCentavos(deposito);
+        executarNoDiario(() -> {
+            synchronized (trava) {
+                registrarTransacao(agora(), TipoTransacao.DEPOSITO, valor);
+            }
+        });
+        concluirMedicao(TipoTransacao.DEPOSITO, inicio);
     }
 
     // Via pix
     public void depositar(String pixPessoal, BigDecimal deposito) throws IllegalArgumentException {
         if (this.pix.contains(pixPessoal)) {
-            registrarTransacao(new Transacao(LocalDateTime.now(), TipoTransacao.DEPOSITO, "DEPÓSITO: +" + deposito), deposito);
+            depositar(deposito);
             return;
         }
         throw new IllegalArgumentException("Pix incorreto para efetuar o depósito! Por favor, insira seu pix corretamente.");
@@ -93,192 +162,725 @@ public class ContaCorrente {
     // Via depósito bancário usual
     public void depositar(String agenciaPessoal, String contaPessoal, BigDecimal deposito) throws IllegalArgumentException {
         if (this.agencia.equals(agenciaPessoal) && this.conta.equals(contaPessoal)) {
-            registrarTransacao(new Transacao(LocalDateTime.now(), TipoTransacao.DEPOSITO, "DEPÓSITO: +" + deposito), deposito);
+            depositar(deposito);
             return;
         }
         throw new IllegalArgumentException(
                 "Dados inválidos para efetuar o depósito! Por favor, insira sua agência e conta bancária corretamente.");
     }
 
-    private void validarValorTransferido(BigDecimal valorTransferido) {
-        if (valorTransferido.compareTo(BigDecimal.ZERO) <= 0)
+    public BigDecimal getSaldo() {
+        return Dinheiro.emBigDecimal(saldo);
+    }
+
+    long getSaldoEmCentavos() {
+        return saldo;
+    }
+
+    private void validarValorTransferido(TipoTransacao tipoTransacao, long valorTransferido) {
+        if (valorTransferido <= 0) {
+            metricas.transacaoRecusada(this, tipoTransacao, MotivoDaRecusa.VALOR_INVALIDO);
             throw new IllegalArgumentException("Valor para movimentação inválido! Por favor, digite uma quantia válida (positiva).");
+        }
     }
 
-    private void validarSaldoParaTransferencia(BigDecimal valorTransferido) {
-        if (valorTransferido.compareTo(this.saldo) > 0)
+    private void validarSaldoParaTransferencia(TipoTransacao tipoTransacao, long valorTransferido) {
+        if (valorTransferido > this.saldo) {
+            metricas.transacaoRecusada(this, tipoTransacao, MotivoDaRecusa.SALDO_INSUFICIENTE);
             throw new IllegalArgumentException("Saldo insuficiente! Transferência não autorizada.");
+        }
     }
 
-    private void registrarTransacao(Transacao transacao, BigDecimal valorTransferido) throws IllegalArgumentException {
-        validarValorTransferido(valorTransferido);
-        if (transacao.getTipoTransacao().equals(TipoTransacao.SAQUE)) saldo = this.saldo.subtract(valorTransferido);
-        if (transacao.getTipoTransacao().equals(TipoTransacao.DEPOSITO)) saldo = this.saldo.add(valorTransferido);
-        extrato.add(transacao);
-        listaClientes.set(listaClientes.indexOf(localizarConta(this.agencia, this.conta)), this);
+    private void registrarTransacao(LocalDateTime dataTransacao, TipoTransacao tipoTransacao, long valorTransferido)
+            throws IllegalArgumentException {
+        validarValorTransferido(tipoTransacao, valorTransferido);
+        if (tipoTransacao.equals(TipoTransacao.SAQUE)) {
+            saldo = Dinheiro.subtrair(this.saldo, valorTransferido);
+            extrato.registrar(dataTransacao, tipoTransacao, NaturezaDoLancamento.SAQUE, valorTransferido, null);
+        }
+        if (tipoTransacao.equals(TipoTransacao.DEPOSITO)) {
+            saldo = Dinheiro.somar(this.saldo, valorTransferido);
+            extrato.registrar(dataTransacao, tipoTransacao, NaturezaDoLancamento.DEPOSITO, valorTransferido, null);
+        }
+        metricas.transacaoRegistrada(this, tipoTransacao, valorTransferido);
+        DiarioDeOperacoes diarioAtual = diario;
+        if (diarioAtual != null) diarioAtual.movimento(this, dataTransacao, tipoTransacao, valorTransferido);
     }
 
-    private void registrarTransacao(Transacao transacao, BigDecimal valorTransferido, ContaCorrente contaDestinatario)
-            throws IllegalArgumentException, CloneNotSupportedException {
-        validarValorTransferido(valorTransferido);
-        validarSaldoParaTransferencia(valorTransferido);
-        if (transacao.getDataTransacao().isBefore(LocalDateTime.now()))
+    private void registrarTransacao(LocalDateTime dataTransacao, TipoTransacao tipoTransacao, long valorTransferido,
+                                    ContaCorrente contaDestinatario) throws IllegalArgumentException {
+        validarValorTransferido(tipoTransacao, valorTransferido);
+        validarSaldoParaTransferencia(tipoTransacao, valorTransferido);
+        if (dataTransacao.isBefore(agora())) {
+            metricas.transacaoRecusada(this, tipoTransacao, MotivoDaRecusa.DATA_INVALIDA);
             throw new IllegalArgumentException("Data de agendamento inválida! Por favor, insira um agendamento válido.");
-        if (!transacao.getDataTransacao().isAfter(LocalDateTime.now().plusSeconds(5L))) { // Apenas para validar o agendamento
-            saldo = this.saldo.subtract(valorTransferido);
-            contaDestinatario.saldo = contaDestinatario.saldo.add(valorTransferido);
-            contaDestinatario.extrato.add(transacao.clone());
-            listaClientes.set(listaClientes.indexOf(localizarConta(contaDestinatario.agencia, contaDestinatario.conta)), contaDestinatario);
         }
-        transacao.setDescricao("Transferência " + validarDataParaTransferir(transacao) + ": -" + valorTransferido +
-                " => DE " + this.nomeTitular + "; PARA " + contaDestinatario.nomeTitular + ";");
-        extrato.add(transacao.clone());
-        listaClientes.set(listaClientes.indexOf(localizarConta(this.agencia, this.conta)), this);
+        boolean agendada = dataTransacao.isAfter(agora().plusSeconds(5L)); // Apenas para validar o agendamento
+        aplicarTransferencia(dataTransacao, tipoTransacao, valorTransferido, contaDestinatario, agendada);
+        metricas.transacaoRegistrada(this, tipoTransacao, valorTransferido);
+        DiarioDeOperacoes diarioAtual = diario;
+        if (diarioAtual != null)
+            diarioAtual.transferencia(this, contaDestinatario, dataTransacao, tipoTransacao, valorTransferido, agendada);
+        // A transferência agendada é efetivada pelo agendador quando vencer
+        if (agendada) getAgendador().agendar(this, contaDestinatario, tipoTransacao, valorTransferido, dataTransacao);
+    }
+
+    // Movimenta os saldos e registra os lançamentos de uma transferência já validada (agendada: só o lançamento de envio)
+    void aplicarTransferencia(LocalDateTime dataTransacao, TipoTransacao tipoTransacao, long valorTransferido,
+                              ContaCorrente contaDestinatario, boolean agendada) {
+        if (!agendada) {
+            long saldoDoDestinatario = Dinheiro.somar(contaDestinatario.saldo, valorTransferido);
+            saldo = Dinheiro.subtrair(this.saldo, valorTransferido);
+            contaDestinatario.saldo = saldoDoDestinatario;
+            contaDestinatario.extrato.registrar(dataTransacao, tipoTransacao, NaturezaDoLancamento.TRANSFERENCIA_RECEBIDA,
+                    valorTransferido, this);
+        }
+        extrato.registrar(dataTransacao, tipoTransacao,
+                agendada ? NaturezaDoLancamento.TRANSFERENCIA_AGENDADA : NaturezaDoLancamento.TRANSFERENCIA_FEITA,
+                valorTransferido, contaDestinatario);
+    }
+
+    // Transferência entre partições (ContasParticionadas), em duas fases: cada passo toca apenas uma conta.
+    // Fase 1, na partição da origem: o valor sai do saldo e fica reservado até a confirmação ou o estorno.
+    void reservarTransferencia(TipoTransacao tipoTransacao, long valorTransferido) throws IllegalArgumentException {
+        synchronized (trava) {
+            validarValorTransferido(tipoTransacao, valorTransferido);
+            validarSaldoParaTransferencia(tipoTransacao, valorTransferido);
+            saldo = Dinheiro.subtrair(this.saldo, valorTransferido);
+        }
+    }
+
+    // Fase 2, na partição do destinatário
+    void creditarTransferencia(LocalDateTime dataTransacao, TipoTransacao tipoTransacao, long valorTransferido,
+                               ContaCorrente contaOrigem) throws IllegalArgumentException {
+        synchronized (trava) {
+            saldo = Dinheiro.somar(this.saldo, valorTransferido);
+            extrato.registrar(dataTransacao, tipoTransacao, NaturezaDoLancamento.TRANSFERENCIA_RECEBIDA,
+                    valorTransferido, contaOrigem);
+        }
+    }
+
+    // De volta à origem: com o crédito feito, a reserva vira o lançamento de envio; sem ele, volta para o saldo
+    void confirmarTransferencia(LocalDateTime dataTransacao, TipoTransacao tipoTransacao, long valorTransferido,
+                                ContaCorrente contaDestinatario) {
+        synchronized (trava) {
+            extrato.registrar(dataTransacao, tipoTransacao, NaturezaDoLancamento.TRANSFERENCIA_FEITA,
+                    valorTransferido, contaDestinatario);
+        }
+        metricas.transacaoRegistrada(this, tipoTransacao, valorTransferido);
+    }
+
+    void estornarReserva(long valorReservado) {
+        synchronized (trava) {
+            saldo = Dinheiro.somar(this.saldo, valorReservado);
+        }
+    }
+
+    static boolean isDiarioAberto() {
+        return diario != null;
     }
 
-    private String validarDataParaTransferir(Transacao transacao) {
-        if (transacao.getDataTransacao().isBefore(LocalDateTime.now().plusSeconds(5L))) return "feita";
-        return "agendada";
+    // Reaplicação de saque ou depósito já validado (recuperação do diário)
+    void aplicarMovimento(LocalDateTime dataTransacao, TipoTransacao tipoTransacao, long valorTransferido) {
+        synchronized (trava) {
+            registrarTransacao(dataTransacao, tipoTransacao, valorTransferido);
+        }
+    }
+
+    // Leitura consistente do estado da conta (saldo, chaves pix e extrato juntos), sob a trava dela
+    <T> T consultarComTrava(Supplier<T> consulta) {
+        synchronized (trava) {
+            return consulta.get();
+        }
+    }
+
+    void restaurarSaldo(long saldoRestaurado) {
+        this.saldo = saldoRestaurado;
+    }
+
+    boolean isExtratoCompacto() {
+        return extrato instanceof ExtratoCompacto;
+    }
+
+    // O lançamento "agendada" só fica no extrato enquanto o agendamento está pendente (também na recuperação pelo diário)
+    void descartarLancamentoAgendado(Agendamento agendamento) {
+        synchronized (trava) {
+            extrato.removerAgendamento(agendamento.getDataAgendada(), agendamento.getTipoTransacao(),
+                    agendamento.getValorEmCentavos(), agendamento.getContaDestinatario());
+        }
+    }
+
+    // Efetivação, pelo agendador, de uma transferência programada que venceu
+    void efetivarAgendamento(Agendamento agendamento) throws IllegalArgumentException {
+        ContaCorrente contaDestinatario = agendamento.getContaDestinatario();
+        long valorTransferido = agendamento.getValorEmCentavos();
+        executarNoDiario(() -> executarComTrava(contaDestinatario, () -> {
+            DiarioDeOperacoes diarioAtual = diario;
+            // O lançamento de agendamento dá lugar à transferência feita ou, se recusada, apenas sai do extrato
+            descartarLancamentoAgendado(agendamento);
+            try {
+                validarSaldoParaTransferencia(agendamento.getTipoTransacao(), valorTransferido);
+                aplicarTransferencia(agendamento.getDataAgendada(), agendamento.getTipoTransacao(), valorTransferido,
+                        contaDestinatario, false);
+            } catch (IllegalArgumentException recusa) {
+                // Saldo insuficiente no vencimento ou saldo do destinatário fora do limite
+                agendamento.setSituacao(Agendamento.Situacao.RECUSADO);
+                if (diarioAtual != null) diarioAtual.agendamentoEncerrado(agendamento);
+                throw recusa;
+            }
+            // A situação muda junto com os saldos, para que um snapshot nunca veja o agendamento pela metade
+            agendamento.setSituacao(Agendamento.Situacao.EXECUTADO);
+            if (diarioAtual != null) diarioAtual.agendamentoEfetivado(agendamento);
+        }));
+    }
+
+    private void registrarTransacaoComTrava(LocalDateTime dataTransacao, TipoTransacao tipoTransacao,
+                                            BigDecimal valor, ContaCorrente contaDestinatario)
+            throws IllegalArgumentException {
+        long inicio = iniciarMedicao();
+        long valorTransferido = Dinheiro.emCentavos(valor);
+        executarNoDiario(() -> executarComTrava(contaDestinatario,
+                () -> registrarTransacao(dataTransacao, tipoTransacao, valorTransferido, contaDestinatario)));
+        concluirMedicao(tipoTransacao, inicio);
+    }
+
+    // Latência só é medida (System.nanoTime) se o registrador de métricas pedir
+    private static long iniciarMedicao() {
+        return metricas.medeLatencia() ? System.nanoTime() : 0L;
+    }
+
+    private static void concluirMedicao(TipoTransacao tipoTransacao, long inicio) {
+        if (inicio != 0L) metricas.latencia(tipoTransacao, System.nanoTime() - inicio);
+    }
+
+    // Instala o registrador de métricas (nulo volta ao padrão, que não registra nada)
+    public static void usarMetricas(RegistradorDeMetricas registrador) {
+        metricas = registrador == null ? RegistradorDeMetricas.NENHUM : registrador;
+    }
+
+    private interface OperacaoComTrava<E extends Exception> {
+        void executar() throws E;
+    }
+
+    // Trava as duas contas sempre na mesma ordem (agência, conta), evitando deadlock entre A -> B e B -> A simultâneos
+    private <E extends Exception> void executarComTrava(ContaCorrente contaDestinatario, OperacaoComTrava<E> operacao) throws E {
+        ContaCorrente primeira = compararParaTravar(this, contaDestinatario) <= 0 ? this : contaDestinatario;
+        ContaCorrente segunda  = primeira == this ? contaDestinatario : this;
+        synchronized (primeira.trava) {
+            synchronized (segunda.trava) {
+                operacao.executar();
+            }
+        }
+    }
+
+    // Operações que alteram o estado gravam no diário (se houver) dentro das travas e aguardam o fsync fora delas
+    private static <E extends Exception> void executarNoDiario(OperacaoComTrava<E> operacao) throws E {
+        DiarioDeOperacoes diarioAtual = diario;
+        if (diarioAtual == null) {
+            operacao.executar();
+            return;
+        }
+        diarioAtual.iniciarOperacao();
+        try {
+            operacao.executar();
+        } finally {
+            diarioAtual.finalizarOperacao();
+        }
+        diarioAtual.aguardarGravacao();
+    }
+
+    static synchronized void usarDiario(DiarioDeOperacoes novoDiario) {
+        if (novoDiario != null && diario != null)
+            throw new IllegalStateException("Já existe um diário de operações aberto.");
+        diario = novoDiario;
+    }
+
+    private static int compararParaTravar(ContaCorrente contaCorrente, ContaCorrente outraConta) {
+        int comparacao = contaCorrente.agencia.compareTo(outraConta.agencia);
+        if (comparacao == 0) comparacao = contaCorrente.conta.compareTo(outraConta.conta);
+        // Desempate para cadastros substituídos com a mesma agência e conta
+        if (comparacao == 0)
+            comparacao = Integer.compare(System.identityHashCode(contaCorrente), System.identityHashCode(outraConta));
+        return comparacao;
     }
 
     // Método de visualização do extrato bancário
     public void verExtrato() {
-        System.out.println("---------- EXTRATO: ----------");
-        System.out.println("- DATA:          - TIPO:         - DESCRIÇÃO:");
-
-        this.extrato
-                .stream()
-                .map(Transacao::formatarParaExtrato)
-                .forEach(System.out::println);
+        imprimirExtrato(copiarExtrato());
 
         /* versão com o extrato anterior (Map)
         this.extrato.forEach((k, v) -> {
-            if (!k.isAfter(LocalDateTime.now())) System.out.println(k + ": " + v);
+            if (!k.isAfter(agora())) System.out.println(k + ": " + v);
         }); */
     }
 
     public void verExtrato(LocalDateTime dataInicialDeVarredura) throws IllegalArgumentException {
-        if (LocalDateTime.now().isBefore(dataInicialDeVarredura))
+        if (agora().isBefore(dataInicialDeVarredura))
             throw new IllegalArgumentException(
-                    "Data inválida! Por favor, insira uma data anterior ou igual a data de hoje (" + LocalDateTime.now() + ").");
-
-        System.out.println("---------- EXTRATO: ----------");
-        System.out.println("- DATA:          - TIPO:         - DESCRIÇÃO:");
+                    "Data inválida! Por favor, insira uma data anterior ou igual a data de hoje (" + agora() + ").");
 
-        this.extrato
-                .stream()
-                .filter(transacao -> !transacao.getDataTransacao().isBefore(dataInicialDeVarredura) &&
-                        !transacao.getDataTransacao().isAfter(LocalDateTime.now()))
-                .map(Transacao::formatarParaExtrato)
-                .forEach(System.out::println);
+        imprimirExtrato(transacoesEntre(dataInicialDeVarredura, agora()));
 
         /* versão com o extrato anterior (Map)
         System.out.println("--- Extrato: ---");
         System.out.println("- DATA: - DESCRIÇÃO:");
         this.extrato.forEach((k, v) -> {
-            if (!k.isBefore(dataInicialDeVarredura) && !k.isAfter(LocalDateTime.now())) System.out.println(k + ": " + v);
+            if (!k.isBefore(dataInicialDeVarredura) && !k.isAfter(agora())) System.out.println(k + ": " + v);
         }); */
     }
 
+    // Extrato completo escrito diretamente no destino (Writer, resposta HTTP, arquivo, SaidaEmByteBuffer...)
+    public void escreverExtrato(Appendable destino, FormatoDoExtrato formato) throws IOException {
+        escreverExtrato(copiarExtrato(), destino, formato);
+    }
+
+    // Extrato do intervalo [de, ate) escrito diretamente no destino
+    public void escreverExtrato(Appendable destino, FormatoDoExtrato formato, LocalDateTime de, LocalDateTime ate)
+            throws IOException {
+        escreverExtrato(consultarExtrato(de, ate), destino, formato);
+    }
+
+    // Extrato completo em UTF-8 (ex.: resposta a um cliente que o pede repetidamente): as páginas já formatadas vêm do
+    // cache, e apenas os lançamentos novos desde a última leitura são formatados
+    public void escreverExtratoCodificado(OutputStream destino, FormatoDoExtrato formato) throws IOException {
+        getCacheDoExtrato().escrever(extrato, trava, formato, destino);
+    }
+
+    private static void escreverExtrato(List<Transacao> transacoes, Appendable destino, FormatoDoExtrato formato)
+            throws IOException {
+        formato.escreverCabecalho(destino);
+        for (Transacao transacao : transacoes) formato.escrever(transacao, destino);
+    }
+
+    // Monta o texto em memória e imprime de uma vez, em vez de um println por linha
+    private static void imprimirExtrato(List<Transacao> transacoes) {
+        StringBuilder texto = new StringBuilder(64 * (transacoes.size() + 2));
+        try {
+            escreverExtrato(transacoes, texto, FormatoDoExtrato.TEXTO);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException); // StringBuilder não lança IOException
+        }
+        System.out.print(texto);
+    }
+
+    private List<Transacao> copiarExtrato() {
+        synchronized (trava) {
+            return this.extrato.todas();
+        }
+    }
+
+    // Transações entre as duas datas, ambas inclusive
+    private List<Transacao> transacoesEntre(LocalDateTime dataInicial, LocalDateTime dataFinal) {
+        synchronized (trava) {
+            return this.extrato.intervalo(dataInicial, dataFinal.plusNanos(1L));
+        }
+    }
+
+    // Consulta do extrato no intervalo [de, ate)
+    public List<Transacao> consultarExtrato(LocalDateTime de, LocalDateTime ate) {
+        synchronized (trava) {
+            return this.extrato.intervalo(de, ate);
+        }
+    }
+
+    // Totais por tipo de transação e saldos de abertura e fechamento entre as datas (inclusive), calculados pelos
+    // resumos diários e mensais do extrato: o custo depende da quantidade de dias e meses, não de lançamentos
+    public ResumoDoPeriodo resumirExtrato(LocalDate de, LocalDate ate) throws IllegalArgumentException {
+        if (ate.isBefore(de))
+            throw new IllegalArgumentException("Período inválido! Por favor, insira uma data final igual ou posterior à inicial.");
+        synchronized (trava) {
+            return this.extrato.getResumos().resumir(de, ate);
+        }
+    }
+
+    // Consulta paginada do extrato no intervalo [de, ate); cursor nulo para a primeira página
+    public PaginaDoExtrato consultarExtrato(LocalDateTime de, LocalDateTime ate, PaginaDoExtrato.Cursor cursor,
+                                            int tamanhoDaPagina) throws IllegalArgumentException {
+        synchronized (trava) {
+            return this.extrato.pagina(de, ate, cursor, tamanhoDaPagina);
+        }
+    }
+
+    // As últimas transações já realizadas (sem agendamentos futuros), em ordem cronológica
+    public List<Transacao> ultimasTransacoes(int quantidade) {
+        synchronized (trava) {
+            return this.extrato.ultimas(quantidade, agora());
+        }
+    }
+
     // Pix entre contas correntes
     public void transferir(String pixDestinatario, BigDecimal valorTransferido)
             throws CloneNotSupportedException, IllegalArgumentException {
         validarPix(pixDestinatario);
-        registrarTransacao(new Transacao(LocalDateTime.now().plusSeconds(5L),
-                        TipoTransacao.PIX,
-                        formatarDescricaoParaTransferir(valorTransferido, localizarConta(pixDestinatario))),
-                valorTransferido, localizarConta(pixDestinatario));
+        ContaCorrente contaDestinatario = localizarConta(pixDestinatario);
+        registrarTransacaoComTrava(agora().plusSeconds(5L), TipoTransacao.PIX,
+                valorTransferido, contaDestinatario);
     }
 
     // Transferência entre contas correntes
     public void transferir(String agenciaDestinatario, String contaDestinatario, BigDecimal valorTransferido)
             throws CloneNotSupportedException, IllegalArgumentException {
         validarAgenciaEConta(agenciaDestinatario, contaDestinatario);
-        registrarTransacao(new Transacao(LocalDateTime.now().plusSeconds(5L),
-                        TipoTransacao.TRANSFERENCIA,
-                        formatarDescricaoParaTransferir(valorTransferido, localizarConta(agenciaDestinatario, contaDestinatario))),
-                valorTransferido, localizarConta(agenciaDestinatario, contaDestinatario));
+        ContaCorrente destinatario = localizarConta(agenciaDestinatario, contaDestinatario);
+        registrarTransacaoComTrava(agora().plusSeconds(5L), TipoTransacao.TRANSFERENCIA,
+                valorTransferido, destinatario);
     }
 
     // Pix programado entre contas correntes
     public void transferir(LocalDateTime dataAgendada, String pixDestinatario, BigDecimal valorTransferido)
             throws CloneNotSupportedException, IllegalArgumentException {
         validarPix(pixDestinatario);
-        registrarTransacao(new Transacao(dataAgendada.plusSeconds(5L),
-                        TipoTransacao.PIX,
-                        formatarDescricaoParaTransferir(valorTransferido, localizarConta(pixDestinatario))),
-                valorTransferido, localizarConta(pixDestinatario));
+        ContaCorrente contaDestinatario = localizarConta(pixDestinatario);
+        registrarTransacaoComTrava(dataAgendada.plusSeconds(5L), TipoTransacao.PIX,
+                valorTransferido, contaDestinatario);
     }
 
     // Transferência programada entre contas correntes
     public void transferir(LocalDateTime dataAgendada, String agenciaDestinatario, String contaDestinatario, BigDecimal valorTransferido)
             throws CloneNotSupportedException, IllegalArgumentException {
         validarAgenciaEConta(agenciaDestinatario, contaDestinatario);
-        registrarTransacao(new Transacao(dataAgendada.plusSeconds(5L),
-                        TipoTransacao.TRANSFERENCIA,
-                        formatarDescricaoParaTransferir(valorTransferido, localizarConta(agenciaDestinatario, contaDestinatario))),
-                valorTransferido, localizarConta(agenciaDestinatario, contaDestinatario));
+        ContaCorrente destinatario = localizarConta(agenciaDestinatario, contaDestinatario);
+        registrarTransacaoComTrava(dataAgendada.plusSeconds(5L), TipoTransacao.TRANSFERENCIA,
+                valorTransferido, destinatario);
     }
 
-    private String formatarDescricaoParaTransferir(BigDecimal valorTransferido, ContaCorrente contaDestinatario) {
-        return "Transferência recebida: +" + valorTransferido + " => DE " + this.nomeTitular +
-                "; PARA " + localizarConta(contaDestinatario.agencia, contaDestinatario.conta).nomeTitular + ";";
+    // Variantes idempotentes: o cliente informa uma chave única por pedido e, ao repetir o pedido com a mesma chave
+    // (ex.: após um timeout), recebe a resposta original sem que a operação seja executada de novo. Recusas também são
+    // repetidas; a mesma chave em outra operação é recusada (IllegalArgumentException).
+    public RespostaDaOperacao depositarIdempotente(String chaveDeIdempotencia, BigDecimal deposito) {
+        String assinatura = "DEPOSITO:" + Dinheiro.emCentavos(deposito);
+        return getCacheDeIdempotencia().executar(this, chaveDeIdempotencia, assinatura, () -> {
+            depositar(deposito);
+            return RespostaDaOperacao.concluida(getSaldo(), Collections.emptyList());
+        });
     }
 
-    private static boolean verificarPix(String pixCadastrado) {
-        // Método com stream
-        return listaClientes.stream()
-                .map(ContaCorrente::getPix)
-                .map(chavesPix -> chavesPix.stream()
-                        .reduce("", String::concat))
-                .reduce("", String::concat)
-                .contains(pixCadastrado);
+    public RespostaDaOperacao transferirIdempotente(String chaveDeIdempotencia, String pixDestinatario,
+                                                    BigDecimal valorTransferido) throws CloneNotSupportedException {
+        String assinatura = "PIX:" + pixDestinatario + ':' + Dinheiro.emCentavos(valorTransferido);
+        return getCacheDeIdempotencia().executar(this, chaveDeIdempotencia, assinatura, () -> {
+            transferir(pixDestinatario, valorTransferido);
+            return RespostaDaOperacao.concluida(getSaldo(), Collections.emptyList());
+        });
+    }
+
+    public RespostaDaOperacao transferirIdempotente(String chaveDeIdempotencia, String agenciaDestinatario,
+                                                    String contaDestinatario, BigDecimal valorTransferido)
+            throws CloneNotSupportedException {
+        String assinatura = "TRANSFERENCIA:" + agenciaDestinatario + '/' + contaDestinatario + ':' +
+                Dinheiro.emCentavos(valorTransferido);
+        return getCacheDeIdempotencia().executar(this, chaveDeIdempotencia, assinatura, () -> {
+            transferir(agenciaDestinatario, contaDestinatario, valorTransferido);
+            return RespostaDaOperacao.concluida(getSaldo(), Collections.emptyList());
+        });
+    }
+
+    // Liquidação de um arquivo de pagamentos: os destinatários são resolvidos em uma única passada, o total é conferido
+    // com o saldo uma vez e todos os lançamentos aceitos entram juntos. Instrução com destinatário ou valor inválido é
+    // recusada individualmente; saldo insuficiente para o total recusa o lote inteiro (IllegalArgumentException).
+    public ResultadoDaLiquidacao transferirEmLote(Iterable<InstrucaoDeTransferencia> instrucoes)
+            throws IllegalArgumentException {
+        // Chaves pix e agência/conta resolvidas em mapas separados: uma chave pix livre pode ter a forma "agência/conta"
+        Map<String, ContaCorrente> destinatariosPorPix = new HashMap<>();
+        Map<String, Map<String, ContaCorrente>> destinatariosPorAgencia = new HashMap<>();
+        List<ResultadoDaLiquidacao.Item> itens = new ArrayList<>();
+        List<ResultadoDaLiquidacao.Item> liquidadas = new ArrayList<>();
+        long total = 0L;
+        for (InstrucaoDeTransferencia instrucao : instrucoes) {
+            ContaCorrente destinatario = instrucao.isPix()
+                    ? destinatariosPorPix.computeIfAbsent(instrucao.getPixDestinatario(), ContaCorrente::localizarConta)
+                    : destinatariosPorAgencia.computeIfAbsent(instrucao.getAgenciaDestinatario(), agencia -> new HashMap<>())
+                                             .computeIfAbsent(instrucao.getContaDestinatario(),
+                                                     conta -> localizarConta(instrucao.getAgenciaDestinatario(), conta));
+            long valor = valorDaInstrucao(instrucao);
+            ResultadoDaLiquidacao.Item item;
+            if (destinatario == null || destinatario == this) {
+                item = ResultadoDaLiquidacao.Item.recusada(instrucao,
+                        "Dados bancários incorretos! Por favor, insira os dados de uma conta válida.");
+                metricas.transacaoRecusada(this, instrucao.getTipoTransacao(),
+                        instrucao.isPix() ? MotivoDaRecusa.PIX_INVALIDO : MotivoDaRecusa.CONTA_INVALIDA);
+            } else if (valor <= 0) {
+                item = ResultadoDaLiquidacao.Item.recusada(instrucao,
+                        "Valor para movimentação inválido! Por favor, digite uma quantia válida (positiva).");
+                metricas.transacaoRecusada(this, instrucao.getTipoTransacao(), MotivoDaRecusa.VALOR_INVALIDO);
+            } else {
+                item = ResultadoDaLiquidacao.Item.liquidada(instrucao, destinatario, valor);
+                liquidadas.add(item);
+                total = Dinheiro.somar(total, item.getValorEmCentavos());
+            }
+            itens.add(item);
+        }
+        if (liquidadas.isEmpty()) return new ResultadoDaLiquidacao(itens, 0, BigDecimal.ZERO);
+
+        long totalLiquidado = total;
+        LocalDateTime dataTransacao = agora().plusSeconds(5L);
+        executarNoDiario(() -> executarComTravas(liquidadas, () -> {
+            if (totalLiquidado > this.saldo) {
+                for (ResultadoDaLiquidacao.Item item : liquidadas)
+                    metricas.transacaoRecusada(this, item.getTipoTransacao(), MotivoDaRecusa.SALDO_INSUFICIENTE);
+                throw new IllegalArgumentException("Saldo insuficiente! Transferência não autorizada.");
+            }
+            verificarCreditosDoLote(liquidadas);
+            debitarLote(dataTransacao, totalLiquidado, liquidadas);
+            creditarLote(dataTransacao, liquidadas);
+            DiarioDeOperacoes diarioAtual = diario;
+            if (diarioAtual != null) diarioAtual.transferenciaEmLote(this, dataTransacao, liquidadas);
+        }));
+        return new ResultadoDaLiquidacao(itens, liquidadas.size(), Dinheiro.emBigDecimal(totalLiquidado));
+    }
+
+    // Valor em centavos, ou zero se estiver fora do limite (a instrução é recusada como valor inválido)
+    private static long valorDaInstrucao(InstrucaoDeTransferencia instrucao) {
+        try {
+            return Dinheiro.emCentavos(instrucao.getValor());
+        } catch (IllegalArgumentException foraDoLimite) {
+            return 0L;
+        }
+    }
+
+    // Reaplicação de um lote já validado (recuperação do diário)
+    void aplicarTransferenciaEmLote(LocalDateTime dataTransacao, List<ResultadoDaLiquidacao.Item> liquidadas) {
+        long total = 0L;
+        for (ResultadoDaLiquidacao.Item item : liquidadas) total = Dinheiro.somar(total, item.getValorEmCentavos());
+        long totalLiquidado = total;
+        executarComTravas(liquidadas, () -> {
+            debitarLote(dataTransacao, totalLiquidado, liquidadas);
+            creditarLote(dataTransacao, liquidadas);
+        });
+    }
+
+    // Trava a origem e todos os destinatários do lote na mesma ordem de executarComTrava (agência, conta): a conferência
+    // dos saldos, o débito e os créditos acontecem sem que outra operação altere alguma das contas no meio
+    private void executarComTravas(List<ResultadoDaLiquidacao.Item> liquidadas, Runnable operacao) {
+        Set<ContaCorrente> contas = Collections.newSetFromMap(new IdentityHashMap<>());
+        contas.add(this);
+        for (ResultadoDaLiquidacao.Item item : liquidadas) contas.add(item.getContaDestinatario());
+        ContaCorrente[] emOrdem = contas.toArray(new ContaCorrente[0]);
+        Arrays.sort(emOrdem, ContaCorrente::compararParaTravar);
+        travarEmOrdem(emOrdem, 0, operacao);
+    }
+
+    private static void travarEmOrdem(ContaCorrente[] contas, int indice, Runnable operacao) {
+        if (indice == contas.length) {
+            operacao.run();
+            return;
+        }
+        synchronized (contas[indice].trava) {
+            travarEmOrdem(contas, indice + 1, operacao);
+        }
+    }
+
+    // Nenhum crédito pode estourar o limite do saldo de um destinatário: conferido sob as travas de todos, antes do
+    // débito da origem (IllegalArgumentException recusa o lote inteiro)
+    private static void verificarCreditosDoLote(List<ResultadoDaLiquidacao.Item> liquidadas) throws IllegalArgumentException {
+        Map<ContaCorrente, Long> creditos = new IdentityHashMap<>();
+        for (ResultadoDaLiquidacao.Item item : liquidadas)
+            creditos.merge(item.getContaDestinatario(), item.getValorEmCentavos(), Dinheiro::somar);
+        creditos.forEach((contaDestinatario, credito) -> Dinheiro.somar(contaDestinatario.saldo, credito));
+    }
+
+    private void debitarLote(LocalDateTime dataTransacao, long total, List<ResultadoDaLiquidacao.Item> liquidadas) {
+        saldo = Dinheiro.subtrair(this.saldo, total);
+        RegistradorDeMetricas registrador = metricas;
+        for (ResultadoDaLiquidacao.Item item : liquidadas) {
+            extrato.registrar(dataTransacao, item.getTipoTransacao(), NaturezaDoLancamento.TRANSFERENCIA_FEITA,
+                    item.getValorEmCentavos(), item.getContaDestinatario());
+            registrador.transacaoRegistrada(this, item.getTipoTransacao(), item.getValorEmCentavos());
+        }
+    }
+
+    // Chamado com as travas da origem e dos destinatários já tomadas (executarComTravas)
+    private void creditarLote(LocalDateTime dataTransacao, List<ResultadoDaLiquidacao.Item> liquidadas) {
+        for (ResultadoDaLiquidacao.Item item : liquidadas) {
+            ContaCorrente contaDestinatario = item.getContaDestinatario();
+            contaDestinatario.saldo = Dinheiro.somar(contaDestinatario.saldo, item.getValorEmCentavos());
+            contaDestinatario.extrato.registrar(dataTransacao, item.getTipoTransacao(),
+                    NaturezaDoLancamento.TRANSFERENCIA_RECEBIDA, item.getValorEmCentavos(), this);
+        }
+    }
 
-        /* Método sem streams
-        for (ContaCorrente contaCorrente: listaClientes) {
+    // Transferências programadas ainda pendentes desta conta, da mais próxima para a mais distante
+    public List<Agendamento> listarAgendamentos() {
+        return getAgendador().listar(this);
+    }
+
+    public boolean cancelarAgendamento(long idAgendamento) {
+        boolean[] cancelado = new boolean[1];
+        executarNoDiario(() -> {
+            synchronized (trava) {
+                Agendamento agendamento = getAgendador().cancelar(this, idAgendamento);
+                if (agendamento == null) return;
+                descartarLancamentoAgendado(agendamento);
+                DiarioDeOperacoes diarioAtual = diario;
+                if (diarioAtual != null) diarioAtual.agendamentoEncerrado(agendamento);
+                cancelado[0] = true;
+            }
+        });
+        return cancelado[0];
+    }
+
+    // Sem trava no caminho comum: toda operação lê o relógio do agendador
+    public static AgendadorDeTransferencias getAgendador() {
+        AgendadorDeTransferencias agendadorAtual = agendador;
+        return agendadorAtual != null ? agendadorAtual : criarAgendador();
+    }
+
+    private static synchronized AgendadorDeTransferencias criarAgendador() {
+        if (agendador == null) {
+            AgendadorDeTransferencias novoAgendador = new AgendadorDeTransferencias(Clock.systemDefaultZone());
+            novoAgendador.iniciar(Duration.ofSeconds(1L));
+            agendador = novoAgendador;
+        }
+        return agendador;
+    }
+
+    // Data e hora atuais pelo relógio do agendador: lançamentos, validação de agendamentos e vencimentos usam o mesmo
+    // relógio, então um relógio controlado (ex.: em testes) vale para todas as operações
+    static LocalDateTime agora() {
+        return getAgendador().agora();
+    }
+
+    // Substitui o agendador (ex.: por um com relógio controlado, em testes)
+    public static synchronized void usarAgendador(AgendadorDeTransferencias novoAgendador) {
+        if (agendador != null && agendador != novoAgendador) agendador.encerrar();
+        agendador = novoAgendador;
+    }
+
+    private static CacheDePaginasDoExtrato getCacheDoExtrato() {
+        CacheDePaginasDoExtrato cache = cacheDoExtrato;
+        if (cache != null) return cache;
+        synchronized (ContaCorrente.class) {
+            if (cacheDoExtrato == null) cacheDoExtrato = new CacheDePaginasDoExtrato(CAPACIDADE_PADRAO_DO_CACHE_DO_EXTRATO);
+            return cacheDoExtrato;
+        }
+    }
 
-            if (contaCorrente.pix.contains(pixCadastrado)) return true;
+    // Substitui o cache de páginas do extrato (vazio), limitado à capacidade informada
+    public static synchronized void usarCacheDoExtrato(long capacidadeEmBytes) throws IllegalArgumentException {
+        cacheDoExtrato = new CacheDePaginasDoExtrato(capacidadeEmBytes);
+    }
 
-        } return false; */
+    // Acertos, extensões, faltas e memória ocupada pelo cache de páginas do extrato
+    public static FotografiaDoCacheDoExtrato fotografarCacheDoExtrato() {
+        return getCacheDoExtrato().fotografar();
+    }
+
+    private static synchronized CacheDeIdempotencia getCacheDeIdempotencia() {
+        if (cacheDeIdempotencia == null)
+            cacheDeIdempotencia = new CacheDeIdempotencia(CAPACIDADE_PADRAO_DA_IDEMPOTENCIA, VALIDADE_PADRAO_DA_IDEMPOTENCIA);
+        return cacheDeIdempotencia;
+    }
+
+    // Substitui o cache de idempotência, descartando as chaves já vistas. Cada chave ocupa uns 300 bytes, além dela mesma:
+    // a capacidade limita a memória, e a validade, por quanto tempo uma repetição ainda é reconhecida.
+    public static synchronized void usarCacheDeIdempotencia(int capacidade, Duration validade) throws IllegalArgumentException {
+        cacheDeIdempotencia = new CacheDeIdempotencia(capacidade, validade);
+    }
+
+    private static boolean verificarPix(String pixCadastrado) {
+        // Busca exata no diretório de chaves pix (sem falsos positivos por substring)
+        return registroDeContas.getDiretorioPix().existe(pixCadastrado);
     }
 
     private static boolean verificarAgenciaEConta(String agenciaCadastrada, String contaCadastrada) {
-        return listaClientes.stream()
-                        .map(contaCorrente -> contaCorrente.agencia + contaCorrente.conta)
-                        .collect(Collectors.toList())
-                        .contains(agenciaCadastrada + contaCadastrada);
+        return registroDeContas.contem(agenciaCadastrada, contaCadastrada);
     }
 
     private static ContaCorrente localizarConta(String pixCadastrado) {
-        return listaClientes.stream()
-                            .filter(contaCorrente -> contaCorrente.pix.contains(pixCadastrado))
-                            .collect(Collectors.toList())
-                            .get(0);
+        return registroDeContas.localizar(pixCadastrado);
     }
 
     private static ContaCorrente localizarConta(String agenciaCadastrada, String contaCadastrada) {
-        return listaClientes.stream()
-                            .filter(contaCorrente -> contaCorrente.agencia.equals(agenciaCadastrada) &&
-                                    contaCorrente.conta.equals(contaCadastrada))
-                            .collect(Collectors.toList())
-                            .get(0);
+        return registroDeContas.localizar(agenciaCadastrada, contaCadastrada);
+    }
+
+    static ContaCorrente localizarConta(int idCadastrado) {
+        return registroDeContas.localizar(idCadastrado);
+    }
+
+    // Consulta de uma conta cadastrada (ex.: após a recuperação do estado pelo diário de operações)
+    public static Optional<ContaCorrente> buscarConta(String agencia, String conta) {
+        return Optional.ofNullable(localizarConta(agencia, conta));
+    }
+
+    static ContaCorrente buscarContaPorPix(String chavePix) {
+        return localizarConta(chavePix);
+    }
+
+    static void registrarEmLote(ContaCorrente[] contas) throws IllegalArgumentException {
+        registroDeContas.registrarEmLote(contas);
+    }
+
+    // Exporta todas as contas (chaves pix, saldos, extratos e agendamentos pendentes) no formato do snapshot.
+    // Cada conta é consistente por si, mesmo com operações em andamento; para um retrato consistente entre as contas
+    // (ex.: uma transferência nas duas pontas), com o diário aberto, use gravarSnapshot.
+    public static void exportarContas(Path arquivo) throws IOException {
+        SnapshotDeContas.gravar(arquivo, 0L, listarContas(), getAgendador().listarPendentes());
+    }
+
+    // Carga rápida de um arquivo exportado (ex.: ambientes de teste): as contas entram no registro em um único lote,
+    // substituindo as de mesma agência e conta, e os agendamentos pendentes voltam para o agendador.
+    // Devolve a quantidade de contas carregadas.
+    public static int importarContas(Path arquivo) throws IOException, IllegalArgumentException {
+        if (isDiarioAberto())
+            throw new IllegalStateException("Importação de contas não pode ser feita com o diário de operações aberto.");
+        SnapshotDeContas.Conteudo conteudo = SnapshotDeContas.ler(arquivo);
+        AgendadorDeTransferencias agendadorAtual = getAgendador();
+        conteudo.getAgendamentos().forEach(agendamento -> agendadorAtual.agendar(agendamento.getContaOrigem(),
+                agendamento.getContaDestinatario(), agendamento.getTipoTransacao(), agendamento.getValorEmCentavos(),
+                agendamento.getDataAgendada()));
+        return conteudo.getContas().size();
+    }
+
+    static List<ContaCorrente> listarContas() {
+        return registroDeContas.todas();
     }
 
     private void validarPix(String pixDestinatario) {
-        if (!verificarPix(pixDestinatario) || this.pix.contains(pixDestinatario))
+        if (!verificarPix(pixDestinatario) || this.pix.contains(pixDestinatario)) {
+            metricas.transacaoRecusada(this, TipoTransacao.PIX, MotivoDaRecusa.PIX_INVALIDO);
             throw new IllegalArgumentException("Dados bancários incorretos! Por favor, insira os dados de uma conta válida.");
+        }
     }
 
     private void validarAgenciaEConta(String agenciaDestinatario, String contaDestinatario) {
         if (!verificarAgenciaEConta(agenciaDestinatario, contaDestinatario) ||
-                localizarConta(agenciaDestinatario, contaDestinatario).equals(this))
+                localizarConta(agenciaDestinatario, contaDestinatario).equals(this)) {
+            metricas.transacaoRecusada(this, TipoTransacao.TRANSFERENCIA, MotivoDaRecusa.CONTA_INVALIDA);
             throw new IllegalArgumentException("Dados bancários incorretos! Por favor, insira os dados de uma conta válida.");
+        }
     }
 
     public void adicionarPix(String novoPix) throws IllegalArgumentException {
-        // Garante a unicidade de cada chave pix
-        if (this.pix.contains(novoPix))
-            throw new IllegalArgumentException("Alerta! Chave pix já cadastrada. Por favor, insira uma nova chave pix.");
-        this.pix.add(novoPix);
+        // Garante a unicidade de cada chave pix, entre todas as contas
+        executarNoDiario(() -> {
+            synchronized (trava) {
+                if (this.pix.contains(novoPix) || !registroDeContas.registrarPix(novoPix, this, () -> this.pix.add(novoPix)))
+                    throw new IllegalArgumentException("Alerta! Chave pix já cadastrada. Por favor, insira uma nova chave pix.");
+                DiarioDeOperacoes diarioAtual = diario;
+                if (diarioAtual != null) diarioAtual.pixAdicionado(this, novoPix);
+            }
+        });
+    }
+
+    // Cadastro de chaves pix em lote (ex.: carga inicial de milhões de chaves). As chaves de cada conta entram na lista
+    // dela de uma vez só (a lista é copiada na escrita: uma cópia por conta, e não por chave), junto com o diretório.
+    public static void adicionarPixEmLote(Map<String, ContaCorrente> chavesPix) throws IllegalArgumentException {
+        Map<ContaCorrente, List<String>> chavesPorConta = new IdentityHashMap<>();
+        chavesPix.forEach((chavePix, contaCorrente) ->
+                chavesPorConta.computeIfAbsent(contaCorrente, conta -> new ArrayList<>()).add(chavePix));
+        executarNoDiario(() -> {
+            DiarioDeOperacoes diarioAtual = diario;
+            registroDeContas.registrarPixEmLote(chavesPix, () -> chavesPorConta.forEach((contaCorrente, chavesDaConta) -> {
+                contaCorrente.pix.addAll(chavesDaConta);
+                if (diarioAtual != null)
+                    for (String chavePix : chavesDaConta) diarioAtual.pixAdicionado(contaCorrente, chavePix);
+            }));
+        });
+    }
+
+    // Visão somente leitura: as chaves mudam apenas pelo cadastro, junto com o diretório pix
+    public List<String> getPix() {
+        return Collections.unmodifiableList(pix);
     }
 }
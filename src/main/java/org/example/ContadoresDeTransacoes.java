@@ -0,0 +1,49 @@
+package org.example;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Contadores listrados (LongAdder) de quantidade, volume e recusas, por TipoTransacao: threads que registram ao mesmo
+// tempo escrevem em células diferentes, sem disputar a mesma linha de cache
+final class ContadoresDeTransacoes {
+
+    private static final TipoTransacao[] TIPOS = TipoTransacao.values();
+    private static final MotivoDaRecusa[] MOTIVOS = MotivoDaRecusa.values();
+
+    private final LongAdder[] quantidades = novosContadores(TIPOS.length);
+    private final LongAdder[] volumes = novosContadores(TIPOS.length); // centavos
+    private final LongAdder[] recusas = novosContadores(TIPOS.length * MOTIVOS.length);
+
+    void registrar(TipoTransacao tipo, long valorEmCentavos) {
+        quantidades[tipo.ordinal()].increment();
+        volumes[tipo.ordinal()].add(valorEmCentavos);
+    }
+
+    void recusar(TipoTransacao tipo, MotivoDaRecusa motivo) {
+        recusas[tipo.ordinal() * MOTIVOS.length + motivo.ordinal()].increment();
+    }
+
+    long quantidade(TipoTransacao tipo) {
+        return quantidades[tipo.ordinal()].sum();
+    }
+
+    long volume(TipoTransacao tipo) {
+        return volumes[tipo.ordinal()].sum();
+    }
+
+    Map<MotivoDaRecusa, Long> recusas(TipoTransacao tipo) {
+        Map<MotivoDaRecusa, Long> porMotivo = new EnumMap<>(MotivoDaRecusa.class);
+        for (MotivoDaRecusa motivo : MOTIVOS) {
+            long quantidade = recusas[tipo.ordinal() * MOTIVOS.length + motivo.ordinal()].sum();
+            if (quantidade > 0) porMotivo.put(motivo, quantidade);
+        }
+        return porMotivo;
+    }
+
+    private static LongAdder[] novosContadores(int quantidade) {
+        LongAdder[] contadores = new LongAdder[quantidade];
+        for (int i = 0; i < quantidade; i++) contadores[i] = new LongAdder();
+        return contadores;
+    }
+}
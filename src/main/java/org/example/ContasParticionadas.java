@@ -0,0 +1,139 @@
+package org.example;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Contas divididas em partições pelo hash de (agência, conta). Cada partição executa as operações das suas contas
+// em uma única thread, então contas de partições diferentes nunca disputam travas. A transferência entre partições
+// é feita em duas fases: a partição da origem reserva o valor, a do destinatário credita e a da origem confirma
+// (ou estorna, se o crédito for recusado). O identificador da operação, por conta de origem, torna a transferência
+// idempotente: repetir o pedido com o mesmo identificador devolve a mesma resposta, sem movimentar de novo; o mesmo
+// identificador em uma transferência diferente é recusado. Cada partição lembra os identificadores das últimas 100 mil
+// transferências concluídas, por até 24 horas.
+public class ContasParticionadas implements AutoCloseable {
+
+    private static final String CONTA_INVALIDA =
+            "Dados bancários incorretos! Por favor, insira os dados de uma conta válida.";
+
+    private final List<ParticaoDeContas> particoes = new ArrayList<>();
+    private final AtomicInteger transferenciasEmAndamento = new AtomicInteger();
+    private volatile boolean encerrado;
+
+    public ContasParticionadas(int quantidadeDeParticoes) {
+        if (quantidadeDeParticoes <= 0)
+            throw new IllegalArgumentException("Quantidade de partições inválida! Por favor, informe ao menos uma.");
+        // As duas fases não passam pelo diário de operações (a reserva não é registrada)
+        if (ContaCorrente.isDiarioAberto())
+            throw new IllegalStateException("Contas particionadas não podem ser usadas com o diário de operações aberto.");
+        for (int i = 0; i < quantidadeDeParticoes; i++) particoes.add(new ParticaoDeContas(i));
+    }
+
+    public int getQuantidadeDeParticoes() {
+        return particoes.size();
+    }
+
+    public int particaoDa(String agencia, String conta) {
+        return Math.floorMod(Objects.hash(agencia, conta), particoes.size());
+    }
+
+    public CompletableFuture<RespostaDaOperacao> depositar(String agencia, String conta, BigDecimal valor) {
+        return executarNaConta(agencia, conta, contaCorrente -> contaCorrente.depositar(valor));
+    }
+
+    public CompletableFuture<RespostaDaOperacao> sacar(String agencia, String conta, BigDecimal valor) {
+        return executarNaConta(agencia, conta, contaCorrente -> contaCorrente.sacar(valor));
+    }
+
+    public CompletableFuture<RespostaDaOperacao> transferir(String idOperacao, String agencia, String conta,
+                                                            String agenciaDestinatario, String contaDestinatario,
+                                                            BigDecimal valor) {
+        return iniciarTransferencia(idOperacao, agencia, conta, TipoTransacao.TRANSFERENCIA,
+                () -> ContaCorrente.buscarConta(agenciaDestinatario, contaDestinatario).orElse(null), valor);
+    }
+
+    public CompletableFuture<RespostaDaOperacao> transferir(String idOperacao, String agencia, String conta,
+                                                            String pixDestinatario, BigDecimal valor) {
+        return iniciarTransferencia(idOperacao, agencia, conta, TipoTransacao.PIX,
+                () -> ContaCorrente.buscarContaPorPix(pixDestinatario), valor);
+    }
+
+    private interface OperacaoNaConta {
+        void executar(ContaCorrente contaCorrente);
+    }
+
+    private CompletableFuture<RespostaDaOperacao> executarNaConta(String agencia, String conta, OperacaoNaConta operacao) {
+        verificarAtivo();
+        ContaCorrente contaCorrente = ContaCorrente.buscarConta(agencia, conta).orElse(null);
+        if (contaCorrente == null) return CompletableFuture.completedFuture(RespostaDaOperacao.recusada(CONTA_INVALIDA));
+        return particoes.get(particaoDa(agencia, conta)).executar(() -> {
+            try {
+                operacao.executar(contaCorrente);
+                return RespostaDaOperacao.concluida(contaCorrente.getSaldo(), Collections.emptyList());
+            } catch (IllegalArgumentException recusa) {
+                return RespostaDaOperacao.recusada(recusa.getMessage());
+            }
+        });
+    }
+
+    private CompletableFuture<RespostaDaOperacao> iniciarTransferencia(String idOperacao, String agencia, String conta,
+                                                                       TipoTransacao tipoTransacao,
+                                                                       Supplier<ContaCorrente> localizarDestinatario,
+                                                                       BigDecimal valor) {
+        Objects.requireNonNull(idOperacao, "idOperacao");
+        verificarAtivo();
+        ContaCorrente contaOrigem = ContaCorrente.buscarConta(agencia, conta).orElse(null);
+        ContaCorrente contaDestinatario = localizarDestinatario.get();
+        if (contaOrigem == null || contaDestinatario == null || contaDestinatario == contaOrigem)
+            return CompletableFuture.completedFuture(RespostaDaOperacao.recusada(CONTA_INVALIDA));
+        long valorEmCentavos;
+        try {
+            valorEmCentavos = Dinheiro.emCentavos(valor);
+        } catch (IllegalArgumentException foraDoLimite) {
+            return CompletableFuture.completedFuture(RespostaDaOperacao.recusada(foraDoLimite.getMessage()));
+        }
+
+        ParticaoDeContas particaoDaOrigem = particoes.get(particaoDa(agencia, conta));
+        ParticaoDeContas particaoDoDestinatario =
+                particoes.get(particaoDa(contaDestinatario.getAgencia(), contaDestinatario.getConta()));
+        transferenciasEmAndamento.incrementAndGet();
+        CompletableFuture<RespostaDaOperacao> resposta = particaoDaOrigem
+                .executar(() -> particaoDaOrigem.iniciarTransferencia(idOperacao, contaOrigem, particaoDoDestinatario,
+                        contaDestinatario, tipoTransacao, valorEmCentavos))
+                .thenCompose(respostaDaOrigem -> respostaDaOrigem);
+        resposta.whenComplete((concluida, falha) -> {
+            if (transferenciasEmAndamento.decrementAndGet() == 0 && encerrado) {
+                synchronized (transferenciasEmAndamento) {
+                    transferenciasEmAndamento.notifyAll();
+                }
+            }
+        });
+        return resposta;
+    }
+
+    // Centavos reservados em transferências entre partições que ainda não terminaram (somas de todas as partições)
+    public BigDecimal valorEmTransito() {
+        long total = 0L;
+        for (ParticaoDeContas particao : particoes) total += particao.executar(particao::getReservado).join();
+        return Dinheiro.emBigDecimal(total);
+    }
+
+    private void verificarAtivo() {
+        if (encerrado) throw new IllegalStateException("Contas particionadas encerradas.");
+    }
+
+    // Para de aceitar operações, espera as transferências em andamento terminarem as duas fases e encerra as partições
+    @Override
+    public void close() throws InterruptedException {
+        encerrado = true;
+        synchronized (transferenciasEmAndamento) {
+            while (transferenciasEmAndamento.get() > 0) transferenciasEmAndamento.wait(10L);
+        }
+        for (ParticaoDeContas particao : particoes) particao.encerrar();
+    }
+}
@@ -0,0 +1,564 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+// Diário (write-ahead log) das operações que alteram as contas: cadastros, chaves pix, saques, depósitos,
+// transferências e agendamentos. Cada registro é gravado em binário como [tamanho][CRC32][conteúdo].
+// Uma thread gravadora faz o commit em grupo: junta os registros de todas as operações concorrentes em um único
+// write + fsync, e cada operação só retorna depois que o seu registro estiver em disco.
+// Na abertura, o estado é reconstruído a partir do último snapshot e da reprodução do diário (lido via mmap);
+// snapshots periódicos limitam o tamanho do diário e, portanto, o tempo de recuperação.
+public class DiarioDeOperacoes implements Closeable {
+
+    static final String ARQUIVO_DO_SNAPSHOT = "snapshot.bin";
+
+    private static final int ASSINATURA = 0x43434A31; // "CCJ1"
+    private static final int VERSAO = 2; // 2: valores em centavos (long)
+    private static final int TAMANHO_DO_CABECALHO_DO_ARQUIVO = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int TAMANHO_DO_CABECALHO_DO_REGISTRO = Integer.BYTES + Integer.BYTES;
+    private static final int CAPACIDADE_INICIAL_DO_LOTE = 1 << 20;
+    private static final long TAMANHO_DA_JANELA = 256L << 20; // Trecho do diário mapeado por vez na recuperação
+
+    // Tipos de registro
+    private static final byte CONTA_CRIADA = 1;
+    private static final byte PIX_ADICIONADO = 2;
+    private static final byte MOVIMENTO = 3;
+    private static final byte TRANSFERENCIA = 4;
+    private static final byte AGENDAMENTO = 5;
+    private static final byte AGENDAMENTO_EFETIVADO = 6;
+    private static final byte AGENDAMENTO_ENCERRADO = 7;
+    private static final byte TRANSFERENCIA_EM_LOTE = 8;
+
+    private static final TipoTransacao[] TIPOS = TipoTransacao.values();
+
+    private final Path diretorio;
+    // Operações seguram a trava de leitura; o snapshot segura a de escrita para obter um estado consistente
+    private final ReentrantReadWriteLock pausa = new ReentrantReadWriteLock();
+    private final ThreadLocal<long[]> ultimoRegistroDaThread = ThreadLocal.withInitial(() -> new long[1]);
+    private final CRC32 crc = new CRC32();
+    private final Thread gravador;
+
+    private FileChannel canal;
+    private long geracao;
+    private ByteBuffer pendente = ByteBuffer.allocate(CAPACIDADE_INICIAL_DO_LOTE);
+    private ByteBuffer reserva = ByteBuffer.allocate(CAPACIDADE_INICIAL_DO_LOTE);
+    private long registrosEscritos;
+    private long registrosDuraveis;
+    private IOException falha;
+    private boolean fechado;
+    private ScheduledExecutorService snapshotsPeriodicos;
+
+    private DiarioDeOperacoes(Path diretorio, long geracao, FileChannel canal) {
+        this.diretorio = diretorio;
+        this.geracao   = geracao;
+        this.canal     = canal;
+        this.gravador  = new Thread(this::gravarContinuamente, "diario-de-operacoes");
+        this.gravador.setDaemon(true);
+        this.gravador.start();
+    }
+
+    // Recupera o estado gravado no diretório (snapshot + diário) e passa a registrar as novas operações
+    public static DiarioDeOperacoes abrir(Path diretorio) throws IOException {
+        Files.createDirectories(diretorio);
+        Map<String, Deque<Agendamento>> agendamentosPendentes = new LinkedHashMap<>();
+        long geracao = 0L;
+        Path snapshot = diretorio.resolve(ARQUIVO_DO_SNAPSHOT);
+        if (Files.exists(snapshot)) {
+            SnapshotDeContas.Conteudo conteudo = SnapshotDeContas.ler(snapshot);
+            geracao = conteudo.getGeracaoDoDiario();
+            conteudo.getAgendamentos().forEach(agendamento -> adicionarPendente(agendamentosPendentes, agendamento));
+        }
+        Path arquivo = arquivoDoDiario(diretorio, geracao);
+        FileChannel canal = Files.exists(arquivo) ? reproduzir(arquivo, geracao, agendamentosPendentes)
+                                                  : criarArquivo(arquivo, geracao);
+
+        AgendadorDeTransferencias agendador = ContaCorrente.getAgendador();
+        agendamentosPendentes.values().forEach(agendamentos -> agendamentos.forEach(agendamento ->
+                agendador.agendar(agendamento.getContaOrigem(), agendamento.getContaDestinatario(),
+                        agendamento.getTipoTransacao(), agendamento.getValorEmCentavos(), agendamento.getDataAgendada())));
+
+        DiarioDeOperacoes diario = new DiarioDeOperacoes(diretorio, geracao, canal);
+        try {
+            ContaCorrente.usarDiario(diario);
+        } catch (RuntimeException jaAberto) {
+            diario.encerrarGravacao(); // Sem registros: apenas libera a thread gravadora e o arquivo
+            throw jaAberto;
+        }
+        return diario;
+    }
+
+    // Grava o estado completo e recomeça o diário vazio. As operações ficam suspensas durante a gravação.
+    public void gravarSnapshot() throws IOException {
+        pausa.writeLock().lock();
+        try {
+            sincronizar();
+            long novaGeracao = geracao + 1;
+            Path temporario = diretorio.resolve(ARQUIVO_DO_SNAPSHOT + ".tmp");
+            SnapshotDeContas.gravar(temporario, novaGeracao, ContaCorrente.listarContas(),
+                    ContaCorrente.getAgendador().listarPendentes());
+            FileChannel novoCanal = criarArquivo(arquivoDoDiario(diretorio, novaGeracao), novaGeracao);
+            Files.move(temporario, diretorio.resolve(ARQUIVO_DO_SNAPSHOT),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            FileChannel canalAnterior;
+            synchronized (this) {
+                canalAnterior = canal;
+                canal = novoCanal;
+                geracao = novaGeracao;
+            }
+            canalAnterior.close();
+            Files.deleteIfExists(arquivoDoDiario(diretorio, novaGeracao - 1));
+        } finally {
+            pausa.writeLock().unlock();
+        }
+    }
+
+    public synchronized void iniciarSnapshotsPeriodicos(Duration intervalo) {
+        if (snapshotsPeriodicos != null) return;
+        snapshotsPeriodicos = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "snapshot-de-contas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotsPeriodicos.scheduleWithFixedDelay(() -> {
+            try {
+                gravarSnapshot();
+            } catch (IOException ioException) {
+                registrarFalha(ioException);
+            }
+        }, intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Desliga o diário das contas, espera as operações em andamento, garante em disco tudo o que já foi registrado e
+    // encerra a gravação. Uma operação que ainda chegue com este diário é recusada (IllegalStateException).
+    @Override
+    public void close() throws IOException {
+        pausa.writeLock().lock();
+        try {
+            ContaCorrente.usarDiario(null);
+            synchronized (this) {
+                if (snapshotsPeriodicos != null) snapshotsPeriodicos.shutdown();
+            }
+            sincronizar();
+        } finally {
+            // Ainda sob a trava de escrita: uma operação que esperava por ela encontra o diário fechado em
+            // iniciarOperacao, antes de alterar qualquer conta
+            synchronized (this) {
+                fechado = true;
+            }
+            pausa.writeLock().unlock();
+            encerrarGravacao();
+        }
+    }
+
+    private void encerrarGravacao() throws IOException {
+        synchronized (this) {
+            fechado = true;
+            notifyAll();
+        }
+        try {
+            gravador.join();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+    }
+
+    // ---------- Operações (chamadas por ContaCorrente) ----------
+
+    // Recusa a operação antes que ela altere alguma conta se o diário já estiver fechado ou se uma gravação tiver
+    // falhado: depois de uma falha, nada mais ficaria durável, e o cliente repetiria uma operação já aplicada
+    void iniciarOperacao() {
+        pausa.readLock().lock();
+        synchronized (this) {
+            if (!fechado && falha == null) return;
+            pausa.readLock().unlock();
+            if (fechado) throw new IllegalStateException("Diário de operações fechado.");
+            throw new UncheckedIOException("Falha ao gravar o diário de operações.", falha);
+        }
+    }
+
+    void finalizarOperacao() {
+        pausa.readLock().unlock();
+    }
+
+    // Aguarda o fsync do último registro feito pela thread atual
+    void aguardarGravacao() {
+        long registro = ultimoRegistroDaThread.get()[0];
+        synchronized (this) {
+            while (registrosDuraveis < registro && falha == null) esperar();
+            if (falha != null) throw new UncheckedIOException("Falha ao gravar o diário de operações.", falha);
+        }
+    }
+
+    synchronized void contaCriada(ContaCorrente contaCorrente) {
+        int inicio = iniciarRegistro(CONTA_CRIADA);
+        escreverConta(contaCorrente);
+        escreverTexto(contaCorrente.getNomeTitular());
+        garantir(1).put((byte) (contaCorrente.isExtratoCompacto() ? 1 : 0));
+        concluirRegistro(inicio);
+    }
+
+    synchronized void pixAdicionado(ContaCorrente contaCorrente, String chavePix) {
+        int inicio = iniciarRegistro(PIX_ADICIONADO);
+        escreverConta(contaCorrente);
+        escreverTexto(chavePix);
+        concluirRegistro(inicio);
+    }
+
+    synchronized void movimento(ContaCorrente contaCorrente, LocalDateTime data, TipoTransacao tipo, long valor) {
+        int inicio = iniciarRegistro(MOVIMENTO);
+        escreverConta(contaCorrente);
+        escreverData(data);
+        garantir(1).put((byte) tipo.ordinal());
+        escreverValor(valor);
+        concluirRegistro(inicio);
+    }
+
+    synchronized void transferencia(ContaCorrente origem, ContaCorrente destino, LocalDateTime data, TipoTransacao tipo,
+                                    long valor, boolean agendada) {
+        escreverTransferencia(agendada ? AGENDAMENTO : TRANSFERENCIA, origem, destino, data, tipo, valor);
+    }
+
+    // O lote inteiro vai em um único registro: ou é reaplicado por completo, ou é descartado com a cauda incompleta
+    synchronized void transferenciaEmLote(ContaCorrente origem, LocalDateTime data, List<ResultadoDaLiquidacao.Item> liquidadas) {
+        int inicio = iniciarRegistro(TRANSFERENCIA_EM_LOTE);
+        escreverConta(origem);
+        escreverData(data);
+        garantir(Integer.BYTES).putInt(liquidadas.size());
+        for (ResultadoDaLiquidacao.Item item : liquidadas) {
+            escreverConta(item.getContaDestinatario());
+            garantir(1).put((byte) item.getTipoTransacao().ordinal());
+            escreverValor(item.getValorEmCentavos());
+        }
+        concluirRegistro(inicio);
+    }
+
+    synchronized void agendamentoEfetivado(Agendamento agendamento) {
+        escreverTransferencia(AGENDAMENTO_EFETIVADO, agendamento);
+    }
+
+    // Agendamento cancelado ou recusado: sai da fila sem movimentar saldo
+    synchronized void agendamentoEncerrado(Agendamento agendamento) {
+        escreverTransferencia(AGENDAMENTO_ENCERRADO, agendamento);
+    }
+
+    // ---------- Escrita ----------
+
+    private void escreverTransferencia(byte tipoDoRegistro, Agendamento agendamento) {
+        escreverTransferencia(tipoDoRegistro, agendamento.getContaOrigem(), agendamento.getContaDestinatario(),
+                agendamento.getDataAgendada(), agendamento.getTipoTransacao(), agendamento.getValorEmCentavos());
+    }
+
+    private void escreverTransferencia(byte tipoDoRegistro, ContaCorrente origem, ContaCorrente destino,
+                                       LocalDateTime data, TipoTransacao tipo, long valor) {
+        int inicio = iniciarRegistro(tipoDoRegistro);
+        escreverConta(origem);
+        escreverConta(destino);
+        escreverData(data);
+        garantir(1).put((byte) tipo.ordinal());
+        escreverValor(valor);
+        concluirRegistro(inicio);
+    }
+
+    private int iniciarRegistro(byte tipoDoRegistro) {
+        // Nada é enfileirado depois do fechamento: o registro nunca ficaria durável
+        if (fechado) throw new IllegalStateException("Diário de operações fechado.");
+        int inicio = garantir(TAMANHO_DO_CABECALHO_DO_REGISTRO + 1).position();
+        pendente.position(inicio + TAMANHO_DO_CABECALHO_DO_REGISTRO);
+        pendente.put(tipoDoRegistro);
+        return inicio;
+    }
+
+    private void concluirRegistro(int inicio) {
+        int tamanho = pendente.position() - inicio - TAMANHO_DO_CABECALHO_DO_REGISTRO;
+        crc.reset();
+        crc.update(pendente.array(), inicio + TAMANHO_DO_CABECALHO_DO_REGISTRO, tamanho);
+        pendente.putInt(inicio, tamanho);
+        pendente.putInt(inicio + Integer.BYTES, (int) crc.getValue());
+        ultimoRegistroDaThread.get()[0] = ++registrosEscritos;
+        notifyAll();
+    }
+
+    private void escreverConta(ContaCorrente contaCorrente) {
+        escreverTexto(contaCorrente.getAgencia());
+        escreverTexto(contaCorrente.getConta());
+    }
+
+    private void escreverTexto(String texto) {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        garantir(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes);
+    }
+
+    private void escreverData(LocalDateTime data) {
+        garantir(Long.BYTES + Integer.BYTES).putLong(data.toEpochSecond(ZoneOffset.UTC)).putInt(data.getNano());
+    }
+
+    private void escreverValor(long centavos) {
+        garantir(Long.BYTES).putLong(centavos);
+    }
+
+    // Amplia o lote pendente, se preciso, para caber mais bytes
+    private ByteBuffer garantir(int bytes) {
+        if (pendente.remaining() < bytes) {
+            ByteBuffer maior = ByteBuffer.allocate(Math.max(pendente.capacity() * 2, pendente.position() + bytes));
+            pendente.flip();
+            maior.put(pendente);
+            pendente = maior;
+        }
+        return pendente;
+    }
+
+    // Commit em grupo: grava de uma vez tudo o que se acumulou desde o último fsync
+    private void gravarContinuamente() {
+        while (true) {
+            ByteBuffer lote;
+            FileChannel destino;
+            long ultimoRegistroDoLote;
+            synchronized (this) {
+                while (pendente.position() == 0 && !fechado) esperar();
+                if (pendente.position() == 0) return;
+                lote = pendente;
+                pendente = reserva;
+                reserva = null;
+                destino = canal;
+                ultimoRegistroDoLote = registrosEscritos;
+            }
+            try {
+                lote.flip();
+                while (lote.hasRemaining()) destino.write(lote);
+                destino.force(false);
+            } catch (IOException ioException) {
+                registrarFalha(ioException);
+                return;
+            }
+            lote.clear();
+            synchronized (this) {
+                reserva = lote;
+                registrosDuraveis = ultimoRegistroDoLote;
+                notifyAll();
+            }
+        }
+    }
+
+    private synchronized void sincronizar() throws IOException {
+        while (registrosDuraveis < registrosEscritos && falha == null) esperar();
+        if (falha != null) throw falha;
+    }
+
+    private synchronized void registrarFalha(IOException ioException) {
+        if (falha == null) falha = ioException;
+        notifyAll();
+    }
+
+    private void esperar() {
+        try {
+            wait();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando o diário de operações.", interruptedException);
+        }
+    }
+
+    // ---------- Arquivos e recuperação ----------
+
+    static Path arquivoDoDiario(Path diretorio, long geracao) {
+        return diretorio.resolve("diario-" + geracao + ".bin");
+    }
+
+    private static FileChannel criarArquivo(Path arquivo, long geracao) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_DO_CABECALHO_DO_ARQUIVO).putInt(ASSINATURA).putInt(VERSAO)
+                                         .putLong(geracao);
+        cabecalho.flip();
+        while (cabecalho.hasRemaining()) canal.write(cabecalho);
+        canal.force(true);
+        return canal;
+    }
+
+    // Reaplica os registros íntegros e descarta a cauda incompleta (escrita interrompida por uma queda). O arquivo é
+    // mapeado em janelas de até TAMANHO_DA_JANELA; um registro que atravessa o fim da janela é lido em uma nova, que
+    // começa nele.
+    private static FileChannel reproduzir(Path arquivo, long geracao, Map<String, Deque<Agendamento>> agendamentosPendentes)
+            throws IOException {
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long tamanhoDoArquivo = canal.size();
+            if (tamanhoDoArquivo < TAMANHO_DO_CABECALHO_DO_ARQUIVO)
+                throw new IOException("Diário de operações inválido: " + arquivo + ".");
+            MappedByteBuffer janela = mapear(canal, 0L, TAMANHO_DO_CABECALHO_DO_ARQUIVO, tamanhoDoArquivo);
+            long inicioDaJanela = 0L;
+            if (janela.getInt() != ASSINATURA || janela.getInt() != VERSAO || janela.getLong() != geracao)
+                throw new IOException("Diário de operações inválido: " + arquivo + ".");
+
+            CRC32 crc = new CRC32();
+            long validoAte = TAMANHO_DO_CABECALHO_DO_ARQUIVO;
+            while (tamanhoDoArquivo - validoAte >= TAMANHO_DO_CABECALHO_DO_REGISTRO) {
+                if (validoAte + TAMANHO_DO_CABECALHO_DO_REGISTRO > inicioDaJanela + janela.limit()) {
+                    janela = mapear(canal, validoAte, TAMANHO_DO_CABECALHO_DO_REGISTRO, tamanhoDoArquivo);
+                    inicioDaJanela = validoAte;
+                }
+                int relativo = (int) (validoAte - inicioDaJanela);
+                int tamanho = janela.getInt(relativo);
+                int verificacao = janela.getInt(relativo + Integer.BYTES);
+                if (tamanho <= 0 || tamanho > tamanhoDoArquivo - validoAte - TAMANHO_DO_CABECALHO_DO_REGISTRO) break;
+                if (relativo + TAMANHO_DO_CABECALHO_DO_REGISTRO + tamanho > janela.limit()) {
+                    janela = mapear(canal, validoAte, TAMANHO_DO_CABECALHO_DO_REGISTRO + tamanho, tamanhoDoArquivo);
+                    inicioDaJanela = validoAte;
+                    relativo = 0;
+                }
+                ByteBuffer conteudo = janela.slice(relativo + TAMANHO_DO_CABECALHO_DO_REGISTRO, tamanho);
+                crc.reset();
+                crc.update(conteudo.duplicate());
+                if ((int) crc.getValue() != verificacao) break;
+                aplicar(conteudo, agendamentosPendentes);
+                validoAte += TAMANHO_DO_CABECALHO_DO_REGISTRO + tamanho;
+            }
+            if (validoAte < tamanhoDoArquivo) canal.truncate(validoAte);
+            canal.position(validoAte);
+            return canal;
+        } catch (IOException | RuntimeException falhaNaRecuperacao) {
+            canal.close();
+            throw falhaNaRecuperacao;
+        }
+    }
+
+    // Janela a partir da posição com pelo menos `bytes` (limitada ao fim do arquivo)
+    private static MappedByteBuffer mapear(FileChannel canal, long posicao, int bytes, long tamanhoDoArquivo)
+            throws IOException {
+        long tamanhoDaJanela = Math.min(Math.max(TAMANHO_DA_JANELA, bytes), tamanhoDoArquivo - posicao);
+        return canal.map(FileChannel.MapMode.READ_ONLY, posicao, tamanhoDaJanela);
+    }
+
+    private static void aplicar(ByteBuffer conteudo, Map<String, Deque<Agendamento>> agendamentosPendentes) {
+        byte tipoDoRegistro = conteudo.get();
+        switch (tipoDoRegistro) {
+            case CONTA_CRIADA: {
+                String agencia = lerTexto(conteudo), conta = lerTexto(conteudo), nomeTitular = lerTexto(conteudo);
+                ContaCorrente.AccountBuilder builder = new ContaCorrente.AccountBuilder(agencia, conta)
+                                                                        .nomeTitular(nomeTitular)
+                                                                        .pix(new ArrayList<>());
+                if (conteudo.get() == 1) builder.extratoCompacto();
+                builder.build();
+                break;
+            }
+            case PIX_ADICIONADO:
+                lerConta(conteudo).adicionarPix(lerTexto(conteudo));
+                break;
+            case MOVIMENTO: {
+                ContaCorrente contaCorrente = lerConta(conteudo);
+                contaCorrente.aplicarMovimento(lerData(conteudo), TIPOS[conteudo.get()], conteudo.getLong());
+                break;
+            }
+            case TRANSFERENCIA_EM_LOTE: {
+                ContaCorrente origem = lerConta(conteudo);
+                LocalDateTime data = lerData(conteudo);
+                int quantidade = conteudo.getInt();
+                List<ResultadoDaLiquidacao.Item> liquidadas = new ArrayList<>(quantidade);
+                for (int i = 0; i < quantidade; i++) {
+                    ContaCorrente destino = lerConta(conteudo);
+                    TipoTransacao tipo = TIPOS[conteudo.get()];
+                    long valor = conteudo.getLong();
+                    InstrucaoDeTransferencia instrucao = InstrucaoDeTransferencia.conta(destino.getAgencia(),
+                            destino.getConta(), Dinheiro.emBigDecimal(valor));
+                    liquidadas.add(new ResultadoDaLiquidacao.Item(instrucao, ResultadoDaLiquidacao.Situacao.LIQUIDADA,
+                            null, destino, tipo, valor));
+                }
+                origem.aplicarTransferenciaEmLote(data, liquidadas);
+                break;
+            }
+            default: {
+                ContaCorrente origem = lerConta(conteudo), destino = lerConta(conteudo);
+                LocalDateTime data = lerData(conteudo);
+                TipoTransacao tipo = TIPOS[conteudo.get()];
+                aplicarTransferencia(tipoDoRegistro, new Agendamento(0L, origem, destino, tipo, conteudo.getLong(), data),
+                        agendamentosPendentes);
+            }
+        }
+    }
+
+    private static void aplicarTransferencia(byte tipoDoRegistro, Agendamento transferencia,
+                                             Map<String, Deque<Agendamento>> agendamentosPendentes) {
+        ContaCorrente origem = transferencia.getContaOrigem();
+        switch (tipoDoRegistro) {
+            case TRANSFERENCIA:
+                origem.aplicarTransferencia(transferencia.getDataAgendada(), transferencia.getTipoTransacao(),
+                        transferencia.getValorEmCentavos(), transferencia.getContaDestinatario(), false);
+                break;
+            case AGENDAMENTO:
+                origem.aplicarTransferencia(transferencia.getDataAgendada(), transferencia.getTipoTransacao(),
+                        transferencia.getValorEmCentavos(), transferencia.getContaDestinatario(), true);
+                adicionarPendente(agendamentosPendentes, transferencia);
+                break;
+            case AGENDAMENTO_EFETIVADO:
+                origem.descartarLancamentoAgendado(transferencia);
+                origem.aplicarTransferencia(transferencia.getDataAgendada(), transferencia.getTipoTransacao(),
+                        transferencia.getValorEmCentavos(), transferencia.getContaDestinatario(), false);
+                removerPendente(agendamentosPendentes, transferencia);
+                break;
+            case AGENDAMENTO_ENCERRADO:
+                origem.descartarLancamentoAgendado(transferencia);
+                removerPendente(agendamentosPendentes, transferencia);
+                break;
+            default:
+                throw new IllegalStateException("Registro desconhecido no diário de operações: " + tipoDoRegistro + ".");
+        }
+    }
+
+    // Agendamentos idênticos são intercambiáveis: basta casar origem, destino, data, tipo e valor
+    private static String chaveDoAgendamento(Agendamento agendamento) {
+        return agendamento.getContaOrigem().getAgencia() + '/' + agendamento.getContaOrigem().getConta() + '>'
+                + agendamento.getContaDestinatario().getAgencia() + '/' + agendamento.getContaDestinatario().getConta()
+                + '@' + agendamento.getDataAgendada() + '#' + agendamento.getTipoTransacao()
+                + '$' + agendamento.getValorEmCentavos();
+    }
+
+    private static void adicionarPendente(Map<String, Deque<Agendamento>> agendamentosPendentes, Agendamento agendamento) {
+        agendamentosPendentes.computeIfAbsent(chaveDoAgendamento(agendamento), chave -> new ArrayDeque<>()).add(agendamento);
+    }
+
+    private static void removerPendente(Map<String, Deque<Agendamento>> agendamentosPendentes, Agendamento agendamento) {
+        String chave = chaveDoAgendamento(agendamento);
+        Deque<Agendamento> agendamentos = agendamentosPendentes.get(chave);
+        if (agendamentos == null) return;
+        agendamentos.poll();
+        if (agendamentos.isEmpty()) agendamentosPendentes.remove(chave);
+    }
+
+    private static ContaCorrente lerConta(ByteBuffer conteudo) {
+        String agencia = lerTexto(conteudo), conta = lerTexto(conteudo);
+        return ContaCorrente.buscarConta(agencia, conta).orElseThrow(() ->
+                new IllegalStateException("Conta inexistente no diário de operações: " + agencia + "/" + conta + "."));
+    }
+
+    private static String lerTexto(ByteBuffer conteudo) {
+        byte[] bytes = new byte[conteudo.getInt()];
+        conteudo.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static LocalDateTime lerData(ByteBuffer conteudo) {
+        long segundos = conteudo.getLong();
+        return LocalDateTime.ofEpochSecond(segundos, conteudo.getInt(), ZoneOffset.UTC);
+    }
+
+}
@@ -0,0 +1,61 @@
+package org.example;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Valores monetários em centavos, guardados em long: saldos e lançamentos somam e comparam sem alocar objetos,
+// e o estouro do long é verificado. A API pública continua recebendo e devolvendo BigDecimal; na entrada,
+// o valor é arredondado para centavos pela regra do banqueiro (HALF_EVEN): 0.125 -> 0.12, 0.135 -> 0.14.
+final class Dinheiro {
+
+    private static final String FORA_DO_LIMITE = "Valor fora do limite suportado! Por favor, digite uma quantia menor.";
+
+    private Dinheiro() {
+    }
+
+    static long emCentavos(BigDecimal valor) {
+        try {
+            // Caso comum (até duas casas decimais): dispensa o arredondamento
+            if (valor.scale() == 2) return valor.unscaledValue().longValueExact();
+            return valor.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+        } catch (ArithmeticException estouro) {
+            throw new IllegalArgumentException(FORA_DO_LIMITE, estouro);
+        }
+    }
+
+    // Sem zeros à direita nem notação científica: 1000 -> 10, 2280 -> 22.8, 105 -> 1.05
+    static BigDecimal emBigDecimal(long centavos) {
+        if (centavos % 100 == 0) return BigDecimal.valueOf(centavos / 100);
+        if (centavos % 10 == 0) return BigDecimal.valueOf(centavos / 10, 1);
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    // Mesmo texto de emBigDecimal(centavos).toString(), sem criar o BigDecimal
+    static String formatar(long centavos) {
+        StringBuilder texto = new StringBuilder(24);
+        if (centavos < 0) texto.append('-');
+        long inteiros = Math.abs(centavos / 100), fracao = Math.abs(centavos % 100);
+        texto.append(inteiros);
+        if (fracao != 0) {
+            texto.append('.').append(fracao / 10);
+            if (fracao % 10 != 0) texto.append(fracao % 10);
+        }
+        return texto.toString();
+    }
+
+    static long somar(long centavos, long outrosCentavos) {
+        try {
+            return Math.addExact(centavos, outrosCentavos);
+        } catch (ArithmeticException estouro) {
+            throw new IllegalArgumentException(FORA_DO_LIMITE, estouro);
+        }
+    }
+
+    static long subtrair(long centavos, long outrosCentavos) {
+        try {
+            return Math.subtractExact(centavos, outrosCentavos);
+        } catch (ArithmeticException estouro) {
+            throw new IllegalArgumentException(FORA_DO_LIMITE, estouro);
+        }
+    }
+}
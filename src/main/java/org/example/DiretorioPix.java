@@ -0,0 +1,51 @@
+package org.example;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Diretório das chaves pix: cada chave pertence a uma única conta corrente, em todo o banco
+final class DiretorioPix {
+
+    // Escritas serializadas pelo monitor do registro; a tabela só é trocada em reservar, com escrita volátil
+    private volatile Map<String, ContaCorrente> contasPorChave = new ConcurrentHashMap<>();
+
+    // Cadastra a chave para a conta; retorna false se ela já pertencer a outra conta
+    boolean cadastrar(String chavePix, ContaCorrente contaCorrente) {
+        ContaCorrente titular = contasPorChave.putIfAbsent(chavePix, contaCorrente);
+        return titular == null || titular == contaCorrente;
+    }
+
+    boolean existe(String chavePix) {
+        return contasPorChave.containsKey(chavePix);
+    }
+
+    ContaCorrente resolver(String chavePix) {
+        return contasPorChave.get(chavePix);
+    }
+
+    void remover(String chavePix, ContaCorrente contaCorrente) {
+        contasPorChave.remove(chavePix, contaCorrente);
+    }
+
+    // Dimensiona a tabela para as chaves de uma carga antes de cadastrá-las: uma única cópia em vez dos
+    // redimensionamentos sucessivos durante a carga. Cargas menores que o diretório causam no máximo um deles; ali não
+    // compensa copiar.
+    void reservar(int chavesNovas) {
+        Map<String, ContaCorrente> atual = contasPorChave;
+        if (chavesNovas <= atual.size()) return;
+        Map<String, ContaCorrente> maior = new ConcurrentHashMap<>(atual.size() + chavesNovas);
+        maior.putAll(atual);
+        contasPorChave = maior;
+    }
+
+    // Carga em lote (ex.: na inicialização): tudo ou nada, todo o lote é conferido antes da primeira chave entrar.
+    // Chave já cadastrada é recusada, inclusive na própria conta (ela já está na lista da conta).
+    void carregarEmLote(Map<String, ContaCorrente> chavesPix) throws IllegalArgumentException {
+        chavesPix.forEach((chavePix, contaCorrente) -> {
+            if (contasPorChave.containsKey(chavePix))
+                throw new IllegalArgumentException("Alerta! Chave pix já cadastrada: " + chavePix + ".");
+        });
+        reservar(chavesPix.size());
+        contasPorChave.putAll(chavesPix);
+    }
+}
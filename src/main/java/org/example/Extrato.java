@@ -0,0 +1,123 @@
+package org.example;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Extrato mantido em ordem cronológica (lançamentos de mesma data na ordem de registro).
+// Consultas por intervalo [de, ate), paginação e "últimas N" usam busca binária: O(log n + k).
+// As implementações definem apenas o armazenamento. Não é thread-safe: o acesso é protegido pela trava da conta.
+abstract class Extrato {
+
+    // Totais por dia e por mês, acumulados a cada lançamento (inclusive na recuperação pelo diário ou snapshot)
+    private final ResumosDoExtrato resumos = new ResumosDoExtrato();
+    // Versão de cada página do CacheDePaginasDoExtrato, incrementada quando um lançamento inserido antes do fim (ou um
+    // agendamento removido) desloca os seguintes; lançamentos no fim apenas estendem a última página. Nulo enquanto todas estão na versão 0.
+    private int[] versoesDasPaginas;
+
+    // Valor em centavos (ver Dinheiro)
+    void registrar(LocalDateTime data, TipoTransacao tipo, NaturezaDoLancamento natureza, long valor,
+                   ContaCorrente contraparte) {
+        int posicao = armazenar(data, tipo, natureza, valor, contraparte);
+        if (posicao < tamanho() - 1) paginasDeslocadas(posicao);
+        resumos.acumular(data.toLocalDate(), tipo, natureza, valor);
+    }
+
+    // Devolve a posição em que o lançamento entrou
+    abstract int armazenar(LocalDateTime data, TipoTransacao tipo, NaturezaDoLancamento natureza, long valor,
+                           ContaCorrente contraparte);
+
+    // Tira do extrato o lançamento de uma transferência agendada que foi efetivada, cancelada ou recusada. Lançamentos
+    // de agendamento não movem o saldo nem entram nos resumos, então só as páginas a partir dele mudam.
+    void removerAgendamento(LocalDateTime data, TipoTransacao tipo, long valor, ContaCorrente contraparte) {
+        for (int posicao = primeiraPosicaoEmOuApos(data), fim = primeiraPosicaoApos(data); posicao < fim; posicao++) {
+            if (naturezaEm(posicao) == NaturezaDoLancamento.TRANSFERENCIA_AGENDADA && tipoEm(posicao) == tipo &&
+                    valorEm(posicao) == valor && contraparteEm(posicao) == contraparte) {
+                // Versões mudam antes do descarte, com o tamanho ainda cheio: a página que ficar vazia também muda
+                paginasDeslocadas(posicao);
+                descartar(posicao);
+                return;
+            }
+        }
+    }
+
+    abstract void descartar(int posicao);
+
+    int versaoDaPagina(int pagina) {
+        return versoesDasPaginas == null || pagina >= versoesDasPaginas.length ? 0 : versoesDasPaginas[pagina];
+    }
+
+    // Páginas da posição inserida (ou removida) até a última (em geral só a última, ou a que antecede os agendamentos
+    // futuros)
+    private void paginasDeslocadas(int posicao) {
+        int ultimaPagina = (tamanho() - 1) / CacheDePaginasDoExtrato.LANCAMENTOS_POR_PAGINA;
+        if (versoesDasPaginas == null || versoesDasPaginas.length <= ultimaPagina)
+            versoesDasPaginas = versoesDasPaginas == null ? new int[ultimaPagina + 1]
+                                                           : Arrays.copyOf(versoesDasPaginas, (ultimaPagina + 1) * 2);
+        for (int pagina = posicao / CacheDePaginasDoExtrato.LANCAMENTOS_POR_PAGINA; pagina <= ultimaPagina; pagina++)
+            versoesDasPaginas[pagina]++;
+    }
+
+    ResumosDoExtrato getResumos() {
+        return resumos;
+    }
+
+    abstract int tamanho();
+
+    abstract Transacao transacaoEm(int posicao);
+
+    abstract LocalDateTime dataEm(int posicao);
+
+    // Dados estruturados do lançamento, para persistência
+    abstract NaturezaDoLancamento naturezaEm(int posicao);
+
+    abstract long valorEm(int posicao);
+
+    abstract ContaCorrente contraparteEm(int posicao);
+
+    TipoTransacao tipoEm(int posicao) {
+        return transacaoEm(posicao).getTipoTransacao();
+    }
+
+    // Primeira posição cuja data é igual ou posterior ao instante
+    abstract int primeiraPosicaoEmOuApos(LocalDateTime instante);
+
+    // Primeira posição cuja data é posterior ao instante
+    abstract int primeiraPosicaoApos(LocalDateTime instante);
+
+    List<Transacao> todas() {
+        return copiar(0, tamanho());
+    }
+
+    List<Transacao> intervalo(LocalDateTime de, LocalDateTime ate) {
+        return copiar(primeiraPosicaoEmOuApos(de), primeiraPosicaoEmOuApos(ate));
+    }
+
+    PaginaDoExtrato pagina(LocalDateTime de, LocalDateTime ate, PaginaDoExtrato.Cursor cursor, int tamanhoDaPagina) {
+        if (tamanhoDaPagina <= 0)
+            throw new IllegalArgumentException("Tamanho de página inválido! Por favor, insira um tamanho positivo.");
+        int inicio = primeiraPosicaoEmOuApos(de);
+        if (cursor != null)
+            inicio = Math.max(inicio, primeiraPosicaoEmOuApos(cursor.getUltimaData()) + cursor.getEntreguesNaUltimaData());
+        int limite = primeiraPosicaoEmOuApos(ate);
+        int fim = (int) Math.min(limite, (long) inicio + tamanhoDaPagina);
+        List<Transacao> pagina = copiar(inicio, fim);
+        if (fim >= limite) return new PaginaDoExtrato(pagina, null);
+
+        LocalDateTime ultimaData = dataEm(fim - 1);
+        return new PaginaDoExtrato(pagina, new PaginaDoExtrato.Cursor(ultimaData, fim - primeiraPosicaoEmOuApos(ultimaData)));
+    }
+
+    // Os últimos lançamentos com data até o instante informado (inclusive), em ordem cronológica
+    List<Transacao> ultimas(int quantidade, LocalDateTime ate) {
+        int fim = primeiraPosicaoApos(ate);
+        return copiar(Math.max(0, fim - quantidade), fim);
+    }
+
+    List<Transacao> copiar(int inicio, int fim) {
+        List<Transacao> transacoes = new ArrayList<>(Math.max(0, fim - inicio));
+        for (int posicao = inicio; posicao < fim; posicao++) transacoes.add(transacaoEm(posicao));
+        return transacoes;
+    }
+}
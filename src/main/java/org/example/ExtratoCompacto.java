@@ -0,0 +1,164 @@
+package org.example;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+// Extrato colunar: um array primitivo por campo, cerca de 22 bytes por lançamento, contra algumas centenas de
+// uma Transacao com LocalDateTime e descrição montada. As datas ficam em milissegundos e os valores em centavos;
+// a Transacao e sua descrição só são criadas quando o lançamento é lido.
+final class ExtratoCompacto extends Extrato {
+
+    private static final int CAPACIDADE_INICIAL = 8;
+    private static final int SEM_CONTRAPARTE = -1;
+    private static final long MILISSEGUNDOS_POR_DIA = 86_400_000L;
+    private static final TipoTransacao[] TIPOS = TipoTransacao.values();
+
+    private final ContaCorrente titular;
+    private long[] datas = new long[CAPACIDADE_INICIAL];       // milissegundos desde 1970-01-01T00:00 (data local)
+    private long[] valores = new long[CAPACIDADE_INICIAL];     // centavos
+    private byte[] tipos = new byte[CAPACIDADE_INICIAL];       // TipoTransacao.ordinal()
+    private byte[] naturezas = new byte[CAPACIDADE_INICIAL];   // NaturezaDoLancamento.ordinal()
+    private int[] contrapartes = new int[CAPACIDADE_INICIAL];  // id da contraparte no registro de contas
+    private int tamanho;
+
+    ExtratoCompacto(ContaCorrente titular) {
+        this.titular = titular;
+    }
+
+    @Override
+    int armazenar(LocalDateTime data, TipoTransacao tipo, NaturezaDoLancamento natureza, long valor,
+                   ContaCorrente contraparte) {
+        long milissegundos = paraMilissegundos(data);
+        if (tamanho == datas.length) crescer();
+        // Caso comum: o lançamento é o mais recente e vai para o fim; agendamentos futuros podem exigir inserção
+        int posicao = tamanho == 0 || datas[tamanho - 1] <= milissegundos ? tamanho : primeiraPosicaoApos(milissegundos);
+        if (posicao < tamanho) deslocar(posicao);
+        datas[posicao] = milissegundos;
+        valores[posicao] = valor;
+        tipos[posicao] = (byte) tipo.ordinal();
+        naturezas[posicao] = (byte) natureza.ordinal();
+        contrapartes[posicao] = contraparte == null ? SEM_CONTRAPARTE : contraparte.getId();
+        tamanho++;
+        return posicao;
+    }
+
+    // Carga em lote (snapshot): assume as colunas já em ordem cronológica, sem cópia, e refaz os resumos
+    void carregar(long[] datasEmMilissegundos, long[] valoresEmCentavos, byte[] tiposDosLancamentos,
+                  byte[] naturezasDosLancamentos, int[] idsDasContrapartes, int quantidade) {
+        datas = datasEmMilissegundos;
+        valores = valoresEmCentavos;
+        tipos = tiposDosLancamentos;
+        naturezas = naturezasDosLancamentos;
+        contrapartes = idsDasContrapartes;
+        tamanho = quantidade;
+        ResumosDoExtrato resumos = getResumos();
+        for (int posicao = 0; posicao < quantidade; posicao++)
+            resumos.acumular(Math.floorDiv(datas[posicao], MILISSEGUNDOS_POR_DIA), TIPOS[tipos[posicao]],
+                    NaturezaDoLancamento.deCodigo(naturezas[posicao]), valores[posicao]);
+    }
+
+    @Override
+    int tamanho() {
+        return tamanho;
+    }
+
+    @Override
+    Transacao transacaoEm(int posicao) {
+        ContaCorrente contraparte = contraparteEm(posicao);
+        String descricao = naturezaEm(posicao).descrever(
+                valorEm(posicao),
+                titular.getNomeTitular(),
+                contraparte == null ? null : contraparte.getNomeTitular());
+        return new Transacao(dataEm(posicao), tipoEm(posicao), descricao);
+    }
+
+    @Override
+    LocalDateTime dataEm(int posicao) {
+        long milissegundos = datas[posicao];
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(milissegundos, 1_000L),
+                (int) Math.floorMod(milissegundos, 1_000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    @Override
+    TipoTransacao tipoEm(int posicao) {
+        return TIPOS[tipos[posicao]];
+    }
+
+    @Override
+    NaturezaDoLancamento naturezaEm(int posicao) {
+        return NaturezaDoLancamento.deCodigo(naturezas[posicao]);
+    }
+
+    @Override
+    long valorEm(int posicao) {
+        return valores[posicao];
+    }
+
+    @Override
+    ContaCorrente contraparteEm(int posicao) {
+        int idContraparte = contrapartes[posicao];
+        return idContraparte == SEM_CONTRAPARTE ? null : ContaCorrente.localizarConta(idContraparte);
+    }
+
+    @Override
+    int primeiraPosicaoEmOuApos(LocalDateTime instante) {
+        long milissegundos = paraMilissegundos(instante);
+        int inicio = 0, fim = tamanho;
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (datas[meio] < milissegundos) inicio = meio + 1;
+            else fim = meio;
+        }
+        return inicio;
+    }
+
+    @Override
+    int primeiraPosicaoApos(LocalDateTime instante) {
+        return primeiraPosicaoApos(paraMilissegundos(instante));
+    }
+
+    private int primeiraPosicaoApos(long milissegundos) {
+        int inicio = 0, fim = tamanho;
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (datas[meio] > milissegundos) fim = meio;
+            else inicio = meio + 1;
+        }
+        return inicio;
+    }
+
+    private void crescer() {
+        // Colunas carregadas em lote podem ter o tamanho exato (inclusive 0 ou 1)
+        int capacidade = datas.length + Math.max(datas.length >> 1, CAPACIDADE_INICIAL);
+        datas = Arrays.copyOf(datas, capacidade);
+        valores = Arrays.copyOf(valores, capacidade);
+        tipos = Arrays.copyOf(tipos, capacidade);
+        naturezas = Arrays.copyOf(naturezas, capacidade);
+        contrapartes = Arrays.copyOf(contrapartes, capacidade);
+    }
+
+    @Override
+    void descartar(int posicao) {
+        int quantidade = tamanho - posicao - 1;
+        System.arraycopy(datas, posicao + 1, datas, posicao, quantidade);
+        System.arraycopy(valores, posicao + 1, valores, posicao, quantidade);
+        System.arraycopy(tipos, posicao + 1, tipos, posicao, quantidade);
+        System.arraycopy(naturezas, posicao + 1, naturezas, posicao, quantidade);
+        System.arraycopy(contrapartes, posicao + 1, contrapartes, posicao, quantidade);
+        tamanho--;
+    }
+
+    private void deslocar(int posicao) {
+        int quantidade = tamanho - posicao;
+        System.arraycopy(datas, posicao, datas, posicao + 1, quantidade);
+        System.arraycopy(valores, posicao, valores, posicao + 1, quantidade);
+        System.arraycopy(tipos, posicao, tipos, posicao + 1, quantidade);
+        System.arraycopy(naturezas, posicao, naturezas, posicao + 1, quantidade);
+        System.arraycopy(contrapartes, posicao, contrapartes, posicao + 1, quantidade);
+    }
+
+    private static long paraMilissegundos(LocalDateTime data) {
+        return data.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
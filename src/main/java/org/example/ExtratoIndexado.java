@@ -0,0 +1,96 @@
+package org.example;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Extrato guardado como lista de Transacao, com a descrição já montada em cada lançamento
+final class ExtratoIndexado extends Extrato {
+
+    private final ContaCorrente titular;
+    private final List<LancamentoDoExtrato> transacoes = new ArrayList<>();
+
+    ExtratoIndexado(ContaCorrente titular) {
+        this.titular = titular;
+    }
+
+    @Override
+    int armazenar(LocalDateTime data, TipoTransacao tipo, NaturezaDoLancamento natureza, long valor,
+                   ContaCorrente contraparte) {
+        String descricao = natureza.descrever(valor, titular.getNomeTitular(),
+                contraparte == null ? null : contraparte.getNomeTitular());
+        LancamentoDoExtrato transacao = new LancamentoDoExtrato(data, tipo, descricao, natureza, valor, contraparte);
+        // Caso comum: a transação é a mais recente e vai para o fim; agendamentos futuros podem exigir inserção
+        if (transacoes.isEmpty() || !dataEm(transacoes.size() - 1).isAfter(data)) {
+            transacoes.add(transacao);
+            return transacoes.size() - 1;
+        }
+        int posicao = primeiraPosicaoApos(data);
+        transacoes.add(posicao, transacao);
+        return posicao;
+    }
+
+    @Override
+    int tamanho() {
+        return transacoes.size();
+    }
+
+    @Override
+    void descartar(int posicao) {
+        transacoes.remove(posicao);
+    }
+
+    // Cópia: o lançamento guardado tem setters (herdados de Transacao) e não pode ser alterado por quem consulta
+    @Override
+    Transacao transacaoEm(int posicao) {
+        LancamentoDoExtrato lancamento = transacoes.get(posicao);
+        return new Transacao(lancamento.getDataTransacao(), lancamento.getTipoTransacao(), lancamento.getDescricao());
+    }
+
+    @Override
+    TipoTransacao tipoEm(int posicao) {
+        return transacoes.get(posicao).getTipoTransacao();
+    }
+
+    @Override
+    LocalDateTime dataEm(int posicao) {
+        return transacoes.get(posicao).getDataTransacao();
+    }
+
+    @Override
+    NaturezaDoLancamento naturezaEm(int posicao) {
+        return transacoes.get(posicao).getNatureza();
+    }
+
+    @Override
+    long valorEm(int posicao) {
+        return transacoes.get(posicao).getValor();
+    }
+
+    @Override
+    ContaCorrente contraparteEm(int posicao) {
+        return transacoes.get(posicao).getContraparte();
+    }
+
+    @Override
+    int primeiraPosicaoEmOuApos(LocalDateTime instante) {
+        int inicio = 0, fim = transacoes.size();
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (dataEm(meio).isBefore(instante)) inicio = meio + 1;
+            else fim = meio;
+        }
+        return inicio;
+    }
+
+    @Override
+    int primeiraPosicaoApos(LocalDateTime instante) {
+        int inicio = 0, fim = transacoes.size();
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (dataEm(meio).isAfter(instante)) fim = meio;
+            else inicio = meio + 1;
+        }
+        return inicio;
+    }
+}
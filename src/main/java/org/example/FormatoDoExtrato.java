@@ -0,0 +1,127 @@
+package org.example;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+// Formatos de saída do extrato. Cada linha é escrita diretamente no destino (System.out, Writer, resposta HTTP,
+// ByteBuffer...), campo a campo, sem montar Strings intermediárias; os formatos não guardam estado e podem ser
+// reutilizados por várias threads.
+public enum FormatoDoExtrato {
+
+    // dd/MM/yyyy HH:mm - Tipo: descrição
+    TEXTO {
+        @Override
+        public void escreverCabecalho(Appendable destino) throws IOException {
+            destino.append("---------- EXTRATO: ----------\n");
+            destino.append("- DATA:          - TIPO:         - DESCRIÇÃO:\n");
+        }
+
+        @Override
+        public void escrever(Transacao transacao, Appendable destino) throws IOException {
+            escreverLinhaDeTexto(transacao, destino);
+            destino.append('\n');
+        }
+    },
+
+    // data ISO-8601,tipo,"descrição"
+    CSV {
+        @Override
+        public void escreverCabecalho(Appendable destino) throws IOException {
+            destino.append("data,tipo,descricao\n");
+        }
+
+        @Override
+        public void escrever(Transacao transacao, Appendable destino) throws IOException {
+            escreverDataIso(transacao.getDataTransacao(), destino);
+            destino.append(',').append(transacao.getTipoTransacao().toString()).append(",\"");
+            String descricao = transacao.getDescricao();
+            for (int i = 0; i < descricao.length(); i++) {
+                char caractere = descricao.charAt(i);
+                if (caractere == '"') destino.append('"');
+                destino.append(caractere);
+            }
+            destino.append("\"\n");
+        }
+    },
+
+    // Um objeto JSON por linha: {"data":"...","tipo":"...","descricao":"..."}
+    JSON_LINHAS {
+        @Override
+        public void escreverCabecalho(Appendable destino) {
+        }
+
+        @Override
+        public void escrever(Transacao transacao, Appendable destino) throws IOException {
+            destino.append("{\"data\":\"");
+            escreverDataIso(transacao.getDataTransacao(), destino);
+            destino.append("\",\"tipo\":\"");
+            escreverJson(transacao.getTipoTransacao().toString(), destino);
+            destino.append("\",\"descricao\":\"");
+            escreverJson(transacao.getDescricao(), destino);
+            destino.append("\"}\n");
+        }
+    };
+
+    private static final char[] HEXADECIMAL = "0123456789abcdef".toCharArray();
+
+    public abstract void escreverCabecalho(Appendable destino) throws IOException;
+
+    public abstract void escrever(Transacao transacao, Appendable destino) throws IOException;
+
+    // Linha do extrato em texto, sem quebra de linha (base de Transacao.formatarParaExtrato)
+    static void escreverLinhaDeTexto(Transacao transacao, Appendable destino) throws IOException {
+        LocalDateTime data = transacao.getDataTransacao();
+        escreverDoisDigitos(data.getDayOfMonth(), destino);
+        destino.append('/');
+        escreverDoisDigitos(data.getMonthValue(), destino);
+        destino.append('/');
+        escreverInteiro(data.getYear(), destino);
+        destino.append(' ');
+        escreverDoisDigitos(data.getHour(), destino);
+        destino.append(':');
+        escreverDoisDigitos(data.getMinute(), destino);
+        destino.append(" - ").append(transacao.getTipoTransacao().toString()).append(": ").append(transacao.getDescricao());
+    }
+
+    // yyyy-MM-ddTHH:mm:ss
+    private static void escreverDataIso(LocalDateTime data, Appendable destino) throws IOException {
+        escreverInteiro(data.getYear(), destino);
+        destino.append('-');
+        escreverDoisDigitos(data.getMonthValue(), destino);
+        destino.append('-');
+        escreverDoisDigitos(data.getDayOfMonth(), destino);
+        destino.append('T');
+        escreverDoisDigitos(data.getHour(), destino);
+        destino.append(':');
+        escreverDoisDigitos(data.getMinute(), destino);
+        destino.append(':');
+        escreverDoisDigitos(data.getSecond(), destino);
+    }
+
+    private static void escreverDoisDigitos(int valor, Appendable destino) throws IOException {
+        destino.append((char) ('0' + valor / 10)).append((char) ('0' + valor % 10));
+    }
+
+    private static void escreverInteiro(int valor, Appendable destino) throws IOException {
+        if (valor < 0) {
+            destino.append('-');
+            valor = -valor;
+        }
+        int divisor = 1;
+        while (valor / divisor >= 10) divisor *= 10;
+        for (; divisor > 0; divisor /= 10) destino.append((char) ('0' + valor / divisor % 10));
+    }
+
+    private static void escreverJson(String texto, Appendable destino) throws IOException {
+        for (int i = 0; i < texto.length(); i++) {
+            char caractere = texto.charAt(i);
+            if (caractere == '"' || caractere == '\\') {
+                destino.append('\\').append(caractere);
+            } else if (caractere < 0x20) {
+                destino.append("\\u00").append(HEXADECIMAL[caractere >> 4]).append(HEXADECIMAL[caractere & 0xF]);
+            } else {
+                destino.append(caractere);
+            }
+        }
+    }
+}
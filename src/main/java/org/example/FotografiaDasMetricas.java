@@ -0,0 +1,90 @@
+package org.example;
+
+import lombok.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.*;
+
+// Retrato imutável das métricas, por TipoTransacao. Latências em nanossegundos.
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class FotografiaDasMetricas {
+
+    private final Map<TipoTransacao, MetricasDoTipo> porTipo;
+
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    @Getter
+    public static class MetricasDoTipo {
+
+        private final TipoTransacao tipo;
+        private final long quantidade;
+        private final BigDecimal volume;
+        private final Map<MotivoDaRecusa, Long> recusas;
+        private final long latencias; // Quantidade de latências medidas
+        private final long latenciaP50;
+        private final long latenciaP90;
+        private final long latenciaP99;
+        private final long latenciaP999;
+        private final long latenciaMaxima;
+
+        public long getTotalDeRecusas() {
+            return recusas.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    static FotografiaDasMetricas de(ContadoresDeTransacoes contadores, Map<TipoTransacao, HistogramaDeLatencia> latencias) {
+        Map<TipoTransacao, MetricasDoTipo> porTipo = new EnumMap<>(TipoTransacao.class);
+        for (TipoTransacao tipo : TipoTransacao.values()) {
+            HistogramaDeLatencia histograma = latencias == null ? null : latencias.get(tipo);
+            long[] contagens = histograma == null ? new long[0] : histograma.copiarContagens();
+            porTipo.put(tipo, new MetricasDoTipo(tipo, contadores.quantidade(tipo),
+                    Dinheiro.emBigDecimal(contadores.volume(tipo)),
+                    Collections.unmodifiableMap(contadores.recusas(tipo)),
+                    HistogramaDeLatencia.total(contagens),
+                    HistogramaDeLatencia.percentil(contagens, 50.0),
+                    HistogramaDeLatencia.percentil(contagens, 90.0),
+                    HistogramaDeLatencia.percentil(contagens, 99.0),
+                    HistogramaDeLatencia.percentil(contagens, 99.9),
+                    histograma == null ? 0L : histograma.getMaximo()));
+        }
+        return new FotografiaDasMetricas(Collections.unmodifiableMap(porTipo));
+    }
+
+    public MetricasDoTipo get(TipoTransacao tipo) {
+        return porTipo.get(tipo);
+    }
+
+    public Collection<MetricasDoTipo> todas() {
+        return porTipo.values();
+    }
+
+    // Exportação no formato texto do Prometheus (um coletor pode raspar o resultado diretamente)
+    public void exportar(Appendable destino) throws IOException {
+        destino.append("# TYPE conta_corrente_transacoes_total counter\n");
+        for (MetricasDoTipo metricas : porTipo.values())
+            escreverAmostra(destino, "conta_corrente_transacoes_total", metricas.tipo, null, metricas.quantidade);
+        destino.append("# TYPE conta_corrente_volume_total counter\n");
+        for (MetricasDoTipo metricas : porTipo.values())
+            escreverAmostra(destino, "conta_corrente_volume_total", metricas.tipo, null, metricas.volume.toPlainString());
+        destino.append("# TYPE conta_corrente_recusas_total counter\n");
+        for (MetricasDoTipo metricas : porTipo.values())
+            for (Map.Entry<MotivoDaRecusa, Long> recusa : metricas.recusas.entrySet())
+                escreverAmostra(destino, "conta_corrente_recusas_total", metricas.tipo,
+                        "motivo=\"" + recusa.getKey().name().toLowerCase(Locale.ROOT) + "\"", recusa.getValue());
+        destino.append("# TYPE conta_corrente_latencia_nanossegundos summary\n");
+        for (MetricasDoTipo metricas : porTipo.values()) {
+            escreverAmostra(destino, "conta_corrente_latencia_nanossegundos", metricas.tipo, "quantile=\"0.5\"", metricas.latenciaP50);
+            escreverAmostra(destino, "conta_corrente_latencia_nanossegundos", metricas.tipo, "quantile=\"0.9\"", metricas.latenciaP90);
+            escreverAmostra(destino, "conta_corrente_latencia_nanossegundos", metricas.tipo, "quantile=\"0.99\"", metricas.latenciaP99);
+            escreverAmostra(destino, "conta_corrente_latencia_nanossegundos", metricas.tipo, "quantile=\"0.999\"", metricas.latenciaP999);
+            escreverAmostra(destino, "conta_corrente_latencia_nanossegundos_count", metricas.tipo, null, metricas.latencias);
+        }
+    }
+
+    private static void escreverAmostra(Appendable destino, String nome, TipoTransacao tipo, String rotuloExtra, Object valor)
+            throws IOException {
+        destino.append(nome).append("{tipo=\"").append(tipo.name().toLowerCase(Locale.ROOT)).append('"');
+        if (rotuloExtra != null) destino.append(',').append(rotuloExtra);
+        destino.append("} ").append(String.valueOf(valor)).append('\n');
+    }
+}
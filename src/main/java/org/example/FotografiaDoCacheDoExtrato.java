@@ -0,0 +1,21 @@
+package org.example;
+
+import lombok.*;
+
+// Retrato das estatísticas do cache de páginas do extrato. Extensão: a página guardada só precisou das linhas novas.
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+@Getter
+public class FotografiaDoCacheDoExtrato {
+
+    private final long acertos;
+    private final long extensoes;
+    private final long faltas;
+    private final int paginas;
+    private final long bytes; // Memória estimada das páginas guardadas
+
+    // Páginas servidas sem formatar nenhuma linha, entre todas as lidas
+    public double getTaxaDeAcerto() {
+        long leituras = acertos + extensoes + faltas;
+        return leituras == 0L ? 0.0 : (double) acertos / leituras;
+    }
+}
@@ -0,0 +1,65 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+// Histograma log-linear no estilo HDR: cada potência de 2 é dividida em 16 faixas, com erro relativo de até 1/16
+// (~6%) em qualquer escala, de nanossegundos a horas, em menos de 8 KB. O registro é lock-free (um incremento
+// atômico) e a leitura pode acontecer com o tráfego em andamento.
+final class HistogramaDeLatencia {
+
+    private static final int BITS_DE_PRECISAO = 5;
+    private static final int METADE_DAS_FAIXAS = 1 << (BITS_DE_PRECISAO - 1);
+
+    private final AtomicLongArray contagens = new AtomicLongArray(indice(Long.MAX_VALUE) + 1);
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0L);
+
+    void registrar(long valor) {
+        if (valor < 0L) valor = 0L;
+        contagens.incrementAndGet(indice(valor));
+        maximo.accumulate(valor);
+    }
+
+    // Cópia das contagens, para calcular vários percentis sobre o mesmo retrato
+    long[] copiarContagens() {
+        long[] copia = new long[contagens.length()];
+        for (int i = 0; i < copia.length; i++) copia[i] = contagens.get(i);
+        return copia;
+    }
+
+    long getMaximo() {
+        return maximo.get();
+    }
+
+    // Maior valor equivalente ao da faixa em que cai o percentil (0 < percentil <= 100)
+    static long percentil(long[] contagens, double percentil) {
+        long total = 0L;
+        for (long contagem : contagens) total += contagem;
+        if (total == 0L) return 0L;
+        long alvo = Math.max(1L, (long) Math.ceil(percentil / 100.0 * total));
+        long acumulado = 0L;
+        for (int i = 0; i < contagens.length; i++) {
+            acumulado += contagens[i];
+            if (acumulado >= alvo) return maiorValorDaFaixa(i);
+        }
+        return maiorValorDaFaixa(contagens.length - 1);
+    }
+
+    static long total(long[] contagens) {
+        long total = 0L;
+        for (long contagem : contagens) total += contagem;
+        return total;
+    }
+
+    // Valores abaixo de 32 têm faixa própria; acima, os 5 bits mais significativos escolhem a faixa
+    static int indice(long valor) {
+        int deslocamento = Math.max(0, 63 - Long.numberOfLeadingZeros(valor) - (BITS_DE_PRECISAO - 1));
+        return deslocamento * METADE_DAS_FAIXAS + (int) (valor >>> deslocamento);
+    }
+
+    static long maiorValorDaFaixa(int indice) {
+        int deslocamento = Math.max(0, indice / METADE_DAS_FAIXAS - 1);
+        long inicioDaFaixa = (long) (indice - deslocamento * METADE_DAS_FAIXAS) << deslocamento;
+        return inicioDaFaixa + ((1L << deslocamento) - 1);
+    }
+}
@@ -0,0 +1,35 @@
+package org.example;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+// Uma linha de um arquivo de liquidação (folha de pagamento, fornecedores): destinatário e valor.
+// O destinatário é identificado pela chave pix ou por agência e conta.
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class InstrucaoDeTransferencia {
+
+    private final String pixDestinatario; // Nulo quando o destinatário é identificado por agência e conta
+    private final String agenciaDestinatario;
+    private final String contaDestinatario;
+    @NonNull
+    private final BigDecimal valor;
+
+    public static InstrucaoDeTransferencia pix(@NonNull String pixDestinatario, BigDecimal valor) {
+        return new InstrucaoDeTransferencia(pixDestinatario, null, null, valor);
+    }
+
+    public static InstrucaoDeTransferencia conta(@NonNull String agenciaDestinatario, @NonNull String contaDestinatario,
+                                                 BigDecimal valor) {
+        return new InstrucaoDeTransferencia(null, agenciaDestinatario, contaDestinatario, valor);
+    }
+
+    public boolean isPix() {
+        return pixDestinatario != null;
+    }
+
+    TipoTransacao getTipoTransacao() {
+        return isPix() ? TipoTransacao.PIX : TipoTransacao.TRANSFERENCIA;
+    }
+}
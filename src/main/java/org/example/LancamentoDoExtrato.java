@@ -0,0 +1,22 @@
+package org.example;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Transacao guardada no extrato em lista, com os dados que originaram sua descrição (usados na persistência)
+@Getter(AccessLevel.PACKAGE)
+final class LancamentoDoExtrato extends Transacao {
+
+    private final NaturezaDoLancamento natureza;
+    private final long valor; // Em centavos
+    private final ContaCorrente contraparte;
+
+    LancamentoDoExtrato(LocalDateTime dataTransacao, TipoTransacao tipoTransacao, String descricao,
+                        NaturezaDoLancamento natureza, long valor, ContaCorrente contraparte) {
+        super(dataTransacao, tipoTransacao, descricao);
+        this.natureza    = natureza;
+        this.valor       = valor;
+        this.contraparte = contraparte;
+    }
+}
@@ -0,0 +1,62 @@
+package org.example;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Registrador de métricas em memória: contadores globais e latências por TipoTransacao e, opcionalmente,
+// contadores por conta. fotografar() pode ser chamado a qualquer momento (ex.: por um coletor que raspa as métricas)
+// sem parar o tráfego; os números de uma fotografia são somas lidas sem travas, não um corte atômico.
+public class MetricasEmMemoria implements RegistradorDeMetricas {
+
+    private final ContadoresDeTransacoes globais = new ContadoresDeTransacoes();
+    private final Map<TipoTransacao, HistogramaDeLatencia> latencias = new EnumMap<>(TipoTransacao.class);
+    private final Map<ContaCorrente, ContadoresDeTransacoes> porConta; // Nulo quando desligado
+
+    public MetricasEmMemoria() {
+        this(false);
+    }
+
+    // Por conta: um conjunto de contadores para cada conta que movimentar (memória proporcional às contas ativas)
+    public MetricasEmMemoria(boolean metricasPorConta) {
+        for (TipoTransacao tipo : TipoTransacao.values()) latencias.put(tipo, new HistogramaDeLatencia());
+        this.porConta = metricasPorConta ? new ConcurrentHashMap<>() : null;
+    }
+
+    @Override
+    public void transacaoRegistrada(ContaCorrente contaCorrente, TipoTransacao tipo, long valorEmCentavos) {
+        globais.registrar(tipo, valorEmCentavos);
+        if (porConta != null) contadoresDa(contaCorrente).registrar(tipo, valorEmCentavos);
+    }
+
+    @Override
+    public void transacaoRecusada(ContaCorrente contaCorrente, TipoTransacao tipo, MotivoDaRecusa motivo) {
+        globais.recusar(tipo, motivo);
+        if (porConta != null) contadoresDa(contaCorrente).recusar(tipo, motivo);
+    }
+
+    @Override
+    public void latencia(TipoTransacao tipo, long nanossegundos) {
+        latencias.get(tipo).registrar(nanossegundos);
+    }
+
+    @Override
+    public boolean medeLatencia() {
+        return true;
+    }
+
+    public FotografiaDasMetricas fotografar() {
+        return FotografiaDasMetricas.de(globais, latencias);
+    }
+
+    // Contadores de uma conta (sem latências); vazio se as métricas por conta estiverem desligadas
+    public FotografiaDasMetricas fotografar(ContaCorrente contaCorrente) {
+        ContadoresDeTransacoes contadores = porConta == null ? null : porConta.get(contaCorrente);
+        return FotografiaDasMetricas.de(contadores == null ? new ContadoresDeTransacoes() : contadores, null);
+    }
+
+    private ContadoresDeTransacoes contadoresDa(ContaCorrente contaCorrente) {
+        ContadoresDeTransacoes contadores = porConta.get(contaCorrente);
+        return contadores != null ? contadores : porConta.computeIfAbsent(contaCorrente, conta -> new ContadoresDeTransacoes());
+    }
+}
@@ -0,0 +1,11 @@
+package org.example;
+
+// Motivo pelo qual uma operação foi recusada (IllegalArgumentException), para as métricas
+public enum MotivoDaRecusa {
+
+    PIX_INVALIDO,
+    CONTA_INVALIDA,
+    VALOR_INVALIDO,
+    SALDO_INSUFICIENTE,
+    DATA_INVALIDA
+}
@@ -0,0 +1,55 @@
+package org.example;
+
+// Natureza de um lançamento no extrato; gera a descrição exibida a partir dos dados do lançamento
+enum NaturezaDoLancamento {
+
+    SAQUE(-1) {
+        @Override
+        String descrever(long valor, String titular, String contraparte) {
+            return "SAQUE: -" + Dinheiro.formatar(valor) + ";";
+        }
+    },
+    DEPOSITO(1) {
+        @Override
+        String descrever(long valor, String titular, String contraparte) {
+            return "DEPÓSITO: +" + Dinheiro.formatar(valor);
+        }
+    },
+    TRANSFERENCIA_FEITA(-1) {
+        @Override
+        String descrever(long valor, String titular, String contraparte) {
+            return "Transferência feita: -" + Dinheiro.formatar(valor) + " => DE " + titular + "; PARA " + contraparte + ";";
+        }
+    },
+    TRANSFERENCIA_AGENDADA(0) {
+        @Override
+        String descrever(long valor, String titular, String contraparte) {
+            return "Transferência agendada: -" + Dinheiro.formatar(valor) + " => DE " + titular + "; PARA " + contraparte + ";";
+        }
+    },
+    TRANSFERENCIA_RECEBIDA(1) {
+        @Override
+        String descrever(long valor, String titular, String contraparte) {
+            return "Transferência recebida: +" + Dinheiro.formatar(valor) + " => DE " + contraparte + "; PARA " + titular + ";";
+        }
+    };
+
+    private static final NaturezaDoLancamento[] VALORES = values();
+
+    // Efeito do lançamento no saldo: saída (-1), entrada (+1) ou nenhum (agendamento, debitado só ao vencer)
+    private final int sinal;
+
+    NaturezaDoLancamento(int sinal) {
+        this.sinal = sinal;
+    }
+
+    int getSinal() {
+        return sinal;
+    }
+
+    abstract String descrever(long valor, String titular, String contraparte);
+
+    static NaturezaDoLancamento deCodigo(byte codigo) {
+        return VALORES[codigo];
+    }
+}
@@ -0,0 +1,28 @@
+package org.example;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Página de uma consulta ao extrato; o cursor (nulo na última página) retoma a consulta de onde ela parou
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+@Getter
+public class PaginaDoExtrato {
+
+    private final List<Transacao> transacoes;
+    private final Cursor proximoCursor;
+
+    public boolean temProximaPagina() {
+        return proximoCursor != null;
+    }
+
+    // Posição após a última transação entregue: sua data e quantas transações com a mesma data já foram entregues
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    @Getter(AccessLevel.PACKAGE)
+    public static class Cursor {
+
+        private final LocalDateTime ultimaData;
+        private final int entreguesNaUltimaData;
+    }
+}
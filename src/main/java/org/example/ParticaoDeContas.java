@@ -0,0 +1,180 @@
+package org.example;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+// Uma partição de ContasParticionadas: todas as operações das suas contas rodam, uma de cada vez, na única thread
+// da partição. O estado das transferências em duas fases (por identificador de operação) só é tocado por essa
+// thread, sem travas; as travas das próprias contas nunca são disputadas por outra partição.
+final class ParticaoDeContas {
+
+    // Identificadores lembrados por partição: os mais recentes, e só enquanto válidos
+    static final int IDENTIFICADORES_GUARDADOS = 100_000;
+    static final Duration VALIDADE_DOS_IDENTIFICADORES = Duration.ofHours(24L);
+
+    private final int numero;
+    private final ExecutorService executor;
+    // Origem: transferências iniciadas aqui, por conta de origem e identificador (repetições recebem a mesma resposta).
+    // As em andamento nunca são descartadas; as concluídas saem pelo início, na ordem em que terminaram.
+    private final Map<Chave, Registro> emAndamento = new HashMap<>();
+    private final LinkedHashMap<Chave, Registro> concluidas = new LinkedHashMap<>();
+    private long reservado; // Centavos que saíram das contas desta partição e aguardam a segunda fase
+
+    ParticaoDeContas(int numero) {
+        this.numero = numero;
+        this.executor = Executors.newSingleThreadExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "particao-de-contas-" + numero);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    int getNumero() {
+        return numero;
+    }
+
+    <T> CompletableFuture<T> executar(Supplier<T> operacao) {
+        return CompletableFuture.supplyAsync(operacao, executor);
+    }
+
+    // Fase 1 (thread desta partição, origem). A resposta é completada quando a origem confirmar ou estornar.
+    // O mesmo identificador em outra operação (outro destinatário, tipo ou valor) é recusado.
+    // A fase 2 não precisa de identificador: a mensagem entre as partições é entregue uma única vez.
+    CompletableFuture<RespostaDaOperacao> iniciarTransferencia(String idOperacao, ContaCorrente contaOrigem,
+                                                               ParticaoDeContas particaoDoDestinatario,
+                                                               ContaCorrente contaDestinatario,
+                                                               TipoTransacao tipoTransacao, long valor) {
+        descartarIdentificadoresAntigos();
+        Chave chave = new Chave(contaOrigem, idOperacao);
+        String assinatura = tipoTransacao + ":" + contaDestinatario.getAgencia() + '/' + contaDestinatario.getConta() +
+                ':' + valor;
+        Registro existente = emAndamento.get(chave);
+        if (existente == null) existente = concluidas.get(chave);
+        if (existente != null) {
+            if (existente.assinatura.equals(assinatura)) return existente.resposta;
+            return CompletableFuture.completedFuture(RespostaDaOperacao.recusada(
+                    "Identificador de operação já usado em outra operação: " + idOperacao + "."));
+        }
+        Registro registro = new Registro(assinatura);
+        emAndamento.put(chave, registro);
+        try {
+            contaOrigem.reservarTransferencia(tipoTransacao, valor);
+        } catch (IllegalArgumentException recusa) {
+            concluir(chave, registro, RespostaDaOperacao.recusada(recusa.getMessage()));
+            return registro.resposta;
+        }
+        reservado += valor;
+        LocalDateTime dataTransacao = ContaCorrente.agora().plusSeconds(5L);
+        if (particaoDoDestinatario == this) {
+            concluirTransferencia(chave, registro, contaOrigem, contaDestinatario, tipoTransacao, valor, dataTransacao,
+                    creditar(contaOrigem, contaDestinatario, tipoTransacao, valor, dataTransacao));
+            return registro.resposta;
+        }
+        // Fase 2 na partição do destinatário; o resultado volta para esta partição, que confirma ou estorna
+        particaoDoDestinatario
+                .executar(() -> creditar(contaOrigem, contaDestinatario, tipoTransacao, valor, dataTransacao))
+                .whenCompleteAsync((falha, erroInesperado) -> concluirTransferencia(chave, registro, contaOrigem,
+                        contaDestinatario, tipoTransacao, valor, dataTransacao,
+                        erroInesperado != null ? new IllegalArgumentException(erroInesperado) : falha), executor);
+        return registro.resposta;
+    }
+
+    // Fase 2 (thread da partição do destinatário): nula se creditou, ou a recusa
+    private static IllegalArgumentException creditar(ContaCorrente contaOrigem, ContaCorrente contaDestinatario,
+                                                     TipoTransacao tipoTransacao, long valor, LocalDateTime dataTransacao) {
+        try {
+            contaDestinatario.creditarTransferencia(dataTransacao, tipoTransacao, valor, contaOrigem);
+            return null;
+        } catch (IllegalArgumentException recusa) {
+            return recusa;
+        }
+    }
+
+    // Thread desta partição (origem): fecha a reserva
+    private void concluirTransferencia(Chave chave, Registro registro, ContaCorrente contaOrigem,
+                                       ContaCorrente contaDestinatario, TipoTransacao tipoTransacao, long valor,
+                                       LocalDateTime dataTransacao, IllegalArgumentException recusaDoCredito) {
+        reservado -= valor;
+        if (recusaDoCredito == null) {
+            contaOrigem.confirmarTransferencia(dataTransacao, tipoTransacao, valor, contaDestinatario);
+            concluir(chave, registro, RespostaDaOperacao.concluida(contaOrigem.getSaldo(), Collections.emptyList()));
+        } else {
+            contaOrigem.estornarReserva(valor);
+            concluir(chave, registro, RespostaDaOperacao.recusada(recusaDoCredito.getMessage()));
+        }
+    }
+
+    private void concluir(Chave chave, Registro registro, RespostaDaOperacao resposta) {
+        emAndamento.remove(chave);
+        registro.concluidaEm = System.nanoTime();
+        concluidas.put(chave, registro);
+        registro.resposta.complete(resposta);
+    }
+
+    // As concluídas estão em ordem de conclusão: as vencidas e as excedentes saem sempre pelo início, em O(1) cada
+    private void descartarIdentificadoresAntigos() {
+        long agora = System.nanoTime();
+        Iterator<Registro> maisAntigas = concluidas.values().iterator();
+        while (maisAntigas.hasNext()) {
+            Registro maisAntiga = maisAntigas.next();
+            if (concluidas.size() <= IDENTIFICADORES_GUARDADOS &&
+                    agora - maisAntiga.concluidaEm < VALIDADE_DOS_IDENTIFICADORES.toNanos()) break;
+            maisAntigas.remove();
+        }
+    }
+
+    long getReservado() {
+        return reservado;
+    }
+
+    void encerrar() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1L, TimeUnit.MINUTES);
+    }
+
+    private static final class Registro {
+
+        private final String assinatura; // Tipo, destinatário e valor
+        private final CompletableFuture<RespostaDaOperacao> resposta = new CompletableFuture<>();
+        private long concluidaEm;
+
+        private Registro(String assinatura) {
+            this.assinatura = assinatura;
+        }
+    }
+
+    // O mesmo identificador em contas de origem diferentes identifica operações diferentes; a conta entra por agência e
+    // conta, e não pelo objeto, para valer também depois de um novo cadastro da mesma conta
+    private static final class Chave {
+
+        private final String agencia;
+        private final String conta;
+        private final String idOperacao;
+
+        private Chave(ContaCorrente contaOrigem, String idOperacao) {
+            this.agencia = contaOrigem.getAgencia();
+            this.conta = contaOrigem.getConta();
+            this.idOperacao = idOperacao;
+        }
+
+        @Override
+        public boolean equals(Object outro) {
+            if (!(outro instanceof Chave)) return false;
+            Chave chave = (Chave) outro;
+            return agencia.equals(chave.agencia) && conta.equals(chave.conta) && idOperacao.equals(chave.idOperacao);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(agencia, conta, idOperacao);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.example;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+// Pedido de um cliente ao ServidorDeOperacoes: a conta de origem (agência e conta), a operação e os seus dados.
+// O destinatário é identificado pela chave pix (PIX) ou por agência e conta (TRANSFERENCIA).
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class PedidoDeOperacao {
+
+    public enum Operacao { DEPOSITO, SAQUE, PIX, TRANSFERENCIA, EXTRATO }
+
+    @NonNull
+    private final Operacao operacao;
+    @NonNull
+    private final String agencia;
+    @NonNull
+    private final String conta;
+    private final String pixDestinatario;
+    private final String agenciaDestinatario;
+    private final String contaDestinatario;
+    private final BigDecimal valor; // Nulo no extrato
+    private final int quantidadeDeTransacoes; // Apenas no extrato
+
+    public static PedidoDeOperacao deposito(String agencia, String conta, @NonNull BigDecimal valor) {
+        return new PedidoDeOperacao(Operacao.DEPOSITO, agencia, conta, null, null, null, valor, 0);
+    }
+
+    public static PedidoDeOperacao saque(String agencia, String conta, @NonNull BigDecimal valor) {
+        return new PedidoDeOperacao(Operacao.SAQUE, agencia, conta, null, null, null, valor, 0);
+    }
+
+    public static PedidoDeOperacao pix(String agencia, String conta, @NonNull String pixDestinatario,
+                                       @NonNull BigDecimal valor) {
+        return new PedidoDeOperacao(Operacao.PIX, agencia, conta, pixDestinatario, null, null, valor, 0);
+    }
+
+    public static PedidoDeOperacao transferencia(String agencia, String conta, @NonNull String agenciaDestinatario,
+                                                 @NonNull String contaDestinatario, @NonNull BigDecimal valor) {
+        return new PedidoDeOperacao(Operacao.TRANSFERENCIA, agencia, conta, null, agenciaDestinatario, contaDestinatario,
+                valor, 0);
+    }
+
+    // Últimas transações da conta, até a quantidade informada
+    public static PedidoDeOperacao extrato(String agencia, String conta, int quantidadeDeTransacoes) {
+        return new PedidoDeOperacao(Operacao.EXTRATO, agencia, conta, null, null, null, null, quantidadeDeTransacoes);
+    }
+}
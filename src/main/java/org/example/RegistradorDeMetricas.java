@@ -0,0 +1,26 @@
+package org.example;
+
+// Ganchos de instrumentação chamados pela ContaCorrente. Os métodos padrão não fazem nada (NENHUM é o registrador
+// em uso até que ContaCorrente.usarMetricas instale outro), então o custo sem métricas é uma chamada vazia.
+// As implementações são chamadas de várias threads ao mesmo tempo, às vezes com a trava da conta adquirida:
+// devem ser rápidas e não bloquear.
+public interface RegistradorDeMetricas {
+
+    RegistradorDeMetricas NENHUM = new RegistradorDeMetricas() {
+    };
+
+    // Operação registrada na conta (saque, depósito, pix ou transferência); valor em centavos
+    default void transacaoRegistrada(ContaCorrente contaCorrente, TipoTransacao tipo, long valorEmCentavos) {
+    }
+
+    default void transacaoRecusada(ContaCorrente contaCorrente, TipoTransacao tipo, MotivoDaRecusa motivo) {
+    }
+
+    // Latência de ponta a ponta da operação (travas e gravação no diário incluídas), só se medeLatencia()
+    default void latencia(TipoTransacao tipo, long nanossegundos) {
+    }
+
+    default boolean medeLatencia() {
+        return false;
+    }
+}
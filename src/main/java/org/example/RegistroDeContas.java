@@ -0,0 +1,141 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Índice das contas correntes cadastradas: busca O(1) por agência/conta e, via diretório, por chave pix.
+// Buscas não travam; cadastros são serializados entre si.
+final class RegistroDeContas {
+
+    // agência -> (conta -> ContaCorrente), evita montar uma chave composta a cada busca
+    private final Map<String, Map<String, ContaCorrente>> contasPorAgencia = new ConcurrentHashMap<>();
+    private final DiretorioPix diretorioPix = new DiretorioPix();
+    // Identificador numérico de cada cadastro (referência compacta usada pelo extrato colunar)
+    private volatile ContaCorrente[] contasPorId = new ContaCorrente[16];
+    private int proximoId;
+
+    synchronized void registrar(ContaCorrente contaCorrente) throws IllegalArgumentException {
+        ContaCorrente anterior = localizar(contaCorrente.getAgencia(), contaCorrente.getConta());
+        for (String chavePix : contaCorrente.getPix()) {
+            // Chaves da conta substituída ficam livres para o novo cadastro
+            ContaCorrente titular = diretorioPix.resolver(chavePix);
+            if (titular != null && titular != contaCorrente && titular != anterior)
+                throw new IllegalArgumentException("Alerta! Chave pix já cadastrada: " + chavePix + ".");
+        }
+        registrarId(contaCorrente);
+        contasPorAgencia
+                .computeIfAbsent(contaCorrente.getAgencia(), agencia -> new ConcurrentHashMap<>())
+                .put(contaCorrente.getConta(), contaCorrente);
+        // Um novo cadastro com a mesma agência e conta substitui o anterior, inclusive suas chaves pix
+        if (anterior != null && anterior != contaCorrente) removerChavesPix(anterior);
+        contaCorrente.getPix().forEach(chavePix -> diretorioPix.cadastrar(chavePix, contaCorrente));
+    }
+
+    // Carga em lote (ex.: importação ou recuperação de milhões de contas): verifica todo o lote antes de alterar
+    // o registro, então as contas entram todas ou nenhuma. Como em registrar, substitui cadastros de mesma agência e conta.
+    synchronized void registrarEmLote(ContaCorrente[] contas) throws IllegalArgumentException {
+        // Mapas novos de cada agência já no tamanho final: evita os redimensionamentos durante a carga
+        Map<String, Integer> quantidadePorAgencia = new HashMap<>();
+        for (ContaCorrente contaCorrente : contas) quantidadePorAgencia.merge(contaCorrente.getAgencia(), 1, Integer::sum);
+        Map<String, Map<String, ContaCorrente>> contasDoLote = new HashMap<>();
+        quantidadePorAgencia.forEach((agencia, quantidade) -> contasDoLote.put(agencia, new ConcurrentHashMap<>(quantidade)));
+        Set<ContaCorrente> substituidas = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (ContaCorrente contaCorrente : contas) {
+            if (contasDoLote.get(contaCorrente.getAgencia()).putIfAbsent(contaCorrente.getConta(), contaCorrente) != null)
+                throw new IllegalArgumentException("Alerta! Conta repetida na carga: " + contaCorrente.getAgencia() + "/" +
+                        contaCorrente.getConta() + ".");
+            ContaCorrente anterior = localizar(contaCorrente.getAgencia(), contaCorrente.getConta());
+            if (anterior != null) substituidas.add(anterior);
+        }
+        Set<String> chavesDoLote = new HashSet<>(contas.length * 2);
+        for (ContaCorrente contaCorrente : contas) {
+            for (String chavePix : contaCorrente.getPix()) {
+                ContaCorrente titular = diretorioPix.resolver(chavePix);
+                if ((titular != null && !substituidas.contains(titular)) || !chavesDoLote.add(chavePix))
+                    throw new IllegalArgumentException("Alerta! Chave pix já cadastrada: " + chavePix + ".");
+            }
+        }
+
+        substituidas.forEach(this::removerChavesPix);
+        diretorioPix.reservar(chavesDoLote.size());
+        ContaCorrente[] porId = contasPorId;
+        if (proximoId + contas.length > porId.length)
+            porId = Arrays.copyOf(porId, Math.max(porId.length * 2, proximoId + contas.length));
+        for (ContaCorrente contaCorrente : contas) {
+            contaCorrente.setId(proximoId);
+            porId[proximoId++] = contaCorrente;
+            for (String chavePix : contaCorrente.getPix()) diretorioPix.cadastrar(chavePix, contaCorrente);
+        }
+        // Agência nova recebe o mapa do lote inteiro; numa já existente, os cadastros são acrescentados
+        contasDoLote.forEach((agencia, contasDaAgencia) -> {
+            Map<String, ContaCorrente> existentes = contasPorAgencia.putIfAbsent(agencia, contasDaAgencia);
+            if (existentes != null) existentes.putAll(contasDaAgencia);
+        });
+        contasPorId = porId; // escrita volátil: publica os novos cadastros para as leituras sem trava
+    }
+
+    // Escritas no diretório pix passam todas pelo monitor do registro: a verificação das chaves em registrar vale até o
+    // cadastro delas, sem que outra conta tome uma chave no meio do caminho. A chave entra na lista da conta
+    // (incluirNaConta) ainda sob o monitor, então um novo cadastro da mesma agência e conta, que libera as chaves da
+    // anterior, encontra a chave nos dois lugares ou em nenhum.
+    synchronized boolean registrarPix(String chavePix, ContaCorrente contaCorrente, Runnable incluirNaConta) {
+        if (!diretorioPix.cadastrar(chavePix, contaCorrente)) return false;
+        incluirNaConta.run();
+        return true;
+    }
+
+    synchronized void registrarPixEmLote(Map<String, ContaCorrente> chavesPix, Runnable incluirNasContas)
+            throws IllegalArgumentException {
+        diretorioPix.carregarEmLote(chavesPix);
+        incluirNasContas.run();
+    }
+
+    ContaCorrente localizar(String agencia, String conta) {
+        Map<String, ContaCorrente> contas = contasPorAgencia.get(agencia);
+        return contas == null ? null : contas.get(conta);
+    }
+
+    ContaCorrente localizar(int id) {
+        ContaCorrente[] contas = contasPorId;
+        return id >= 0 && id < contas.length ? contas[id] : null;
+    }
+
+    ContaCorrente localizar(String chavePix) {
+        return diretorioPix.resolver(chavePix);
+    }
+
+    List<ContaCorrente> todas() {
+        List<ContaCorrente> contas = new ArrayList<>();
+        contasPorAgencia.values().forEach(contasDaAgencia -> contas.addAll(contasDaAgencia.values()));
+        return contas;
+    }
+
+    boolean contem(String agencia, String conta) {
+        return localizar(agencia, conta) != null;
+    }
+
+    DiretorioPix getDiretorioPix() {
+        return diretorioPix;
+    }
+
+    private void registrarId(ContaCorrente contaCorrente) {
+        ContaCorrente[] contas = contasPorId;
+        if (proximoId == contas.length) contas = Arrays.copyOf(contas, contas.length * 2);
+        contaCorrente.setId(proximoId);
+        contas[proximoId++] = contaCorrente;
+        contasPorId = contas; // escrita volátil: publica o novo cadastro para as leituras sem trava
+    }
+
+    private void removerChavesPix(ContaCorrente contaCorrente) {
+        List<String> chavesPix = contaCorrente.getPix();
+        for (String chavePix : chavesPix) diretorioPix.remover(chavePix, contaCorrente);
+    }
+}
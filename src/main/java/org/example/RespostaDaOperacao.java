@@ -0,0 +1,47 @@
+package org.example;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+// Resposta do ServidorDeOperacoes a um pedido. SOBRECARGA e EXPIRADA garantem que a operação não foi executada.
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class RespostaDaOperacao {
+
+    public enum Situacao {
+        CONCLUIDA,
+        RECUSADA,   // A conta recusou a operação (mesma mensagem da IllegalArgumentException)
+        SOBRECARGA, // Fila do servidor cheia: rejeitado na chegada
+        EXPIRADA    // O prazo do pedido terminou antes de a operação começar
+    }
+
+    private final Situacao situacao;
+    private final String mensagem; // Nula quando concluída
+    private final BigDecimal saldo; // Saldo da conta de origem logo após a operação; nulo se não concluída
+    private final List<Transacao> transacoes; // Apenas no extrato
+
+    static RespostaDaOperacao concluida(BigDecimal saldo, List<Transacao> transacoes) {
+        return new RespostaDaOperacao(Situacao.CONCLUIDA, null, saldo, transacoes);
+    }
+
+    static RespostaDaOperacao recusada(String mensagem) {
+        return new RespostaDaOperacao(Situacao.RECUSADA, mensagem, null, Collections.emptyList());
+    }
+
+    static RespostaDaOperacao sobrecarga() {
+        return new RespostaDaOperacao(Situacao.SOBRECARGA, "Servidor sobrecarregado! Por favor, tente novamente.",
+                null, Collections.emptyList());
+    }
+
+    static RespostaDaOperacao expirada() {
+        return new RespostaDaOperacao(Situacao.EXPIRADA, "Prazo do pedido esgotado! A operação não foi executada.",
+                null, Collections.emptyList());
+    }
+
+    public boolean isConcluida() {
+        return situacao == Situacao.CONCLUIDA;
+    }
+}
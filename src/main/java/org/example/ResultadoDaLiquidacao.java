@@ -0,0 +1,47 @@
+package org.example;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Resultado de uma liquidação em lote, item a item, na ordem das instruções recebidas
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+@Getter
+public class ResultadoDaLiquidacao {
+
+    public enum Situacao { LIQUIDADA, RECUSADA }
+
+    private final List<Item> itens;
+    private final int quantidadeLiquidada;
+    private final BigDecimal totalLiquidado;
+
+    public List<Item> recusados() {
+        return itens.stream().filter(item -> item.getSituacao() == Situacao.RECUSADA).collect(Collectors.toList());
+    }
+
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    @Getter
+    public static class Item {
+
+        private final InstrucaoDeTransferencia instrucao;
+        private final Situacao situacao;
+        private final String motivo; // Nulo quando liquidada
+        @Getter(AccessLevel.PACKAGE)
+        private final ContaCorrente contaDestinatario;
+        @Getter(AccessLevel.PACKAGE)
+        private final TipoTransacao tipoTransacao;
+        @Getter(AccessLevel.PACKAGE)
+        private final long valorEmCentavos;
+
+        static Item liquidada(InstrucaoDeTransferencia instrucao, ContaCorrente contaDestinatario, long valorEmCentavos) {
+            return new Item(instrucao, Situacao.LIQUIDADA, null, contaDestinatario, instrucao.getTipoTransacao(),
+                    valorEmCentavos);
+        }
+
+        static Item recusada(InstrucaoDeTransferencia instrucao, String motivo) {
+            return new Item(instrucao, Situacao.RECUSADA, motivo, null, instrucao.getTipoTransacao(), 0L);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.example;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Movimentação de uma conta entre duas datas (inclusive): saldos de abertura e fechamento pelo extrato e,
+// por TipoTransacao, a quantidade de lançamentos e os totais de entrada e de saída
+@Getter
+public class ResumoDoPeriodo {
+
+    private final LocalDate de;
+    private final LocalDate ate;
+    private final BigDecimal saldoInicial;
+    private final BigDecimal saldoFinal;
+    @Getter(AccessLevel.NONE)
+    private final ResumosDoExtrato.Acumulado totais;
+
+    ResumoDoPeriodo(LocalDate de, LocalDate ate, long saldoInicial, ResumosDoExtrato.Acumulado totais) {
+        this.de = de;
+        this.ate = ate;
+        this.saldoInicial = Dinheiro.emBigDecimal(saldoInicial);
+        this.saldoFinal = Dinheiro.emBigDecimal(saldoInicial + totais.liquido);
+        this.totais = totais;
+    }
+
+    public long getQuantidade(TipoTransacao tipo) {
+        return totais.quantidades[tipo.ordinal()];
+    }
+
+    public BigDecimal getEntradas(TipoTransacao tipo) {
+        return Dinheiro.emBigDecimal(totais.entradas[tipo.ordinal()]);
+    }
+
+    public BigDecimal getSaidas(TipoTransacao tipo) {
+        return Dinheiro.emBigDecimal(totais.saidas[tipo.ordinal()]);
+    }
+
+    public BigDecimal getMovimentacaoLiquida() {
+        return Dinheiro.emBigDecimal(totais.liquido);
+    }
+}
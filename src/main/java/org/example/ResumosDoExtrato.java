@@ -0,0 +1,92 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Totais do extrato de uma conta por dia e por mês, mantidos a cada lançamento: quantidade, entradas e saídas por
+// TipoTransacao. Um período é respondido somando os meses inteiros pelos totais mensais e as pontas pelos diários,
+// sem percorrer os lançamentos. Lançamentos de agendamento não movem o saldo e não entram nos totais.
+// Não é thread-safe: o acesso é protegido pela trava da conta, como o próprio extrato.
+final class ResumosDoExtrato {
+
+    private static final int QUANTIDADE_DE_TIPOS = TipoTransacao.values().length;
+
+    private final TreeMap<LocalDate, Acumulado> diarios = new TreeMap<>();
+    private final TreeMap<YearMonth, Acumulado> mensais = new TreeMap<>();
+    // Caso comum: lançamentos seguidos no mesmo dia dispensam as buscas nas árvores
+    private long ultimoDia = Long.MIN_VALUE; // Dias desde 1970-01-01
+    private Acumulado acumuladoDoUltimoDia;
+    private Acumulado acumuladoDoUltimoMes;
+
+    void acumular(LocalDate dia, TipoTransacao tipo, NaturezaDoLancamento natureza, long valor) {
+        acumular(dia.toEpochDay(), tipo, natureza, valor);
+    }
+
+    void acumular(long diaEmEpoch, TipoTransacao tipo, NaturezaDoLancamento natureza, long valor) {
+        if (natureza.getSinal() == 0) return;
+        if (diaEmEpoch != ultimoDia) {
+            LocalDate dia = LocalDate.ofEpochDay(diaEmEpoch);
+            ultimoDia = diaEmEpoch;
+            acumuladoDoUltimoDia = diarios.computeIfAbsent(dia, novoDia -> new Acumulado());
+            acumuladoDoUltimoMes = mensais.computeIfAbsent(YearMonth.from(dia), novoMes -> new Acumulado());
+        }
+        acumuladoDoUltimoDia.somar(tipo, natureza.getSinal(), valor);
+        acumuladoDoUltimoMes.somar(tipo, natureza.getSinal(), valor);
+    }
+
+    // Período entre as datas, inclusive
+    ResumoDoPeriodo resumir(LocalDate de, LocalDate ate) {
+        long saldoInicial = liquidoAntesDe(de);
+        Acumulado periodo = new Acumulado();
+        YearMonth primeiroMes = YearMonth.from(de), ultimoMes = YearMonth.from(ate);
+        if (primeiroMes.equals(ultimoMes)) {
+            somar(diarios.subMap(de, true, ate, true), periodo);
+        } else {
+            somar(diarios.subMap(de, true, primeiroMes.atEndOfMonth(), true), periodo);
+            somar(mensais.subMap(primeiroMes, false, ultimoMes, false), periodo);
+            somar(diarios.subMap(ultimoMes.atDay(1), true, ate, true), periodo);
+        }
+        return new ResumoDoPeriodo(de, ate, saldoInicial, periodo);
+    }
+
+    // Saldo pelo extrato no início do dia: meses anteriores completos e os dias anteriores do mesmo mês
+    private long liquidoAntesDe(LocalDate dia) {
+        YearMonth mes = YearMonth.from(dia);
+        long liquido = 0L;
+        for (Acumulado acumulado : mensais.headMap(mes).values()) liquido += acumulado.liquido;
+        for (Acumulado acumulado : diarios.subMap(mes.atDay(1), dia).values()) liquido += acumulado.liquido;
+        return liquido;
+    }
+
+    private static void somar(Map<?, Acumulado> acumulados, Acumulado destino) {
+        for (Acumulado acumulado : acumulados.values()) destino.somar(acumulado);
+    }
+
+    // Totais de um dia, de um mês ou de um período, em centavos
+    static final class Acumulado {
+
+        final long[] quantidades = new long[QUANTIDADE_DE_TIPOS];
+        final long[] entradas = new long[QUANTIDADE_DE_TIPOS];
+        final long[] saidas = new long[QUANTIDADE_DE_TIPOS];
+        long liquido;
+
+        private void somar(TipoTransacao tipo, int sinal, long valor) {
+            int indice = tipo.ordinal();
+            quantidades[indice]++;
+            if (sinal > 0) entradas[indice] += valor;
+            else saidas[indice] += valor;
+            liquido += sinal * valor;
+        }
+
+        private void somar(Acumulado outro) {
+            for (int indice = 0; indice < QUANTIDADE_DE_TIPOS; indice++) {
+                quantidades[indice] += outro.quantidades[indice];
+                entradas[indice] += outro.entradas[indice];
+                saidas[indice] += outro.saidas[indice];
+            }
+            liquido += outro.liquido;
+        }
+    }
+}
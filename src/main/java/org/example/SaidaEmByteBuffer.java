@@ -0,0 +1,64 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+// Adapta um ByteBuffer como destino do extrato, codificando os caracteres em UTF-8 sem Strings ou arrays intermediários.
+// Lança BufferOverflowException se o buffer encher. Metades de pares substitutos (surrogates) sem par viram '?', como em
+// String.getBytes(UTF_8); uma metade alta no fim do texto aguarda o próximo append.
+public class SaidaEmByteBuffer implements Appendable {
+
+    private static final byte SUBSTITUTO = '?';
+
+    private final ByteBuffer buffer;
+    private char altoPendente; // primeira metade de um par substituto (surrogate), aguardando a segunda
+
+    public SaidaEmByteBuffer(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public Appendable append(CharSequence texto) {
+        return append(texto, 0, texto.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence texto, int inicio, int fim) {
+        for (int i = inicio; i < fim; i++) append(texto.charAt(i));
+        return this;
+    }
+
+    @Override
+    public Appendable append(char caractere) {
+        if (altoPendente != 0) {
+            char alto = altoPendente;
+            altoPendente = 0;
+            if (Character.isLowSurrogate(caractere)) {
+                int codigo = Character.toCodePoint(alto, caractere);
+                buffer.put((byte) (0xF0 | codigo >> 18))
+                      .put((byte) (0x80 | codigo >> 12 & 0x3F))
+                      .put((byte) (0x80 | codigo >> 6 & 0x3F))
+                      .put((byte) (0x80 | codigo & 0x3F));
+                return this;
+            }
+            buffer.put(SUBSTITUTO); // Metade alta sem a segunda
+        }
+        if (Character.isHighSurrogate(caractere)) {
+            altoPendente = caractere;
+        } else if (Character.isLowSurrogate(caractere)) {
+            buffer.put(SUBSTITUTO); // Metade baixa sem a primeira
+        } else if (caractere < 0x80) {
+            buffer.put((byte) caractere);
+        } else if (caractere < 0x800) {
+            buffer.put((byte) (0xC0 | caractere >> 6)).put((byte) (0x80 | caractere & 0x3F));
+        } else {
+            buffer.put((byte) (0xE0 | caractere >> 12))
+                  .put((byte) (0x80 | caractere >> 6 & 0x3F))
+                  .put((byte) (0x80 | caractere & 0x3F));
+        }
+        return this;
+    }
+}
@@ -0,0 +1,116 @@
+package org.example;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Porta de entrada de pedidos de muitos clientes: cada pedido roda na sua própria thread virtual e chama as operações
+// de ContaCorrente. Contrapressão: no máximo `capacidade` pedidos aceitos ao mesmo tempo (o excedente volta na hora
+// como SOBRECARGA) e no máximo `concorrencia` executando; os demais esperam uma vaga até o fim do prazo (EXPIRADA).
+// O prazo cobre apenas a espera pela vaga, não a operação: depois de começar, ela termina e responde, por mais que
+// demore (ex.: aguardando o fsync do diário). Assim SOBRECARGA e EXPIRADA sempre significam que nada foi executado.
+public class ServidorDeOperacoes implements AutoCloseable {
+
+    private final int capacidade;
+    private final Duration prazoPadrao;
+    private final Semaphore vagas;
+    private final AtomicInteger aceitos = new AtomicInteger();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean encerrado;
+
+    public ServidorDeOperacoes(int concorrencia, int capacidade, Duration prazoPadrao) {
+        if (concorrencia <= 0 || capacidade < concorrencia || prazoPadrao.isNegative() || prazoPadrao.isZero())
+            throw new IllegalArgumentException("Configuração do servidor inválida! A capacidade deve ser ao menos a concorrência.");
+        this.capacidade = capacidade;
+        this.prazoPadrao = prazoPadrao;
+        this.vagas = new Semaphore(concorrencia, true);
+    }
+
+    public CompletableFuture<RespostaDaOperacao> enviar(PedidoDeOperacao pedido) {
+        return enviar(pedido, prazoPadrao);
+    }
+
+    // O prazo limita só a espera por uma vaga de execução; a resposta de uma operação já iniciada não expira
+    public CompletableFuture<RespostaDaOperacao> enviar(PedidoDeOperacao pedido, Duration prazo) {
+        if (encerrado) throw new IllegalStateException("Servidor de operações encerrado.");
+        if (aceitos.incrementAndGet() > capacidade) {
+            aceitos.decrementAndGet();
+            return CompletableFuture.completedFuture(RespostaDaOperacao.sobrecarga());
+        }
+        long limite = System.nanoTime() + prazo.toNanos();
+        CompletableFuture<RespostaDaOperacao> resposta = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    resposta.complete(processar(pedido, limite));
+                } catch (Throwable falha) {
+                    resposta.completeExceptionally(falha);
+                } finally {
+                    aceitos.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException encerrando) {
+            aceitos.decrementAndGet();
+            throw new IllegalStateException("Servidor de operações encerrado.", encerrando);
+        }
+        return resposta;
+    }
+
+    // Envia e espera a resposta
+    public RespostaDaOperacao executar(PedidoDeOperacao pedido) {
+        return enviar(pedido).join();
+    }
+
+    public int quantidadeEmAndamento() {
+        return aceitos.get();
+    }
+
+    private RespostaDaOperacao processar(PedidoDeOperacao pedido, long limite)
+            throws InterruptedException, CloneNotSupportedException {
+        if (!vagas.tryAcquire(limite - System.nanoTime(), TimeUnit.NANOSECONDS)) return RespostaDaOperacao.expirada();
+        try {
+            Optional<ContaCorrente> contaCorrente = ContaCorrente.buscarConta(pedido.getAgencia(), pedido.getConta());
+            if (contaCorrente.isEmpty())
+                return RespostaDaOperacao.recusada("Dados bancários incorretos! Por favor, insira os dados de uma conta válida.");
+            return despachar(contaCorrente.get(), pedido);
+        } catch (IllegalArgumentException recusa) {
+            return RespostaDaOperacao.recusada(recusa.getMessage());
+        } finally {
+            vagas.release();
+        }
+    }
+
+    private static RespostaDaOperacao despachar(ContaCorrente contaCorrente, PedidoDeOperacao pedido)
+            throws CloneNotSupportedException {
+        List<Transacao> transacoes = Collections.emptyList();
+        switch (pedido.getOperacao()) {
+            case DEPOSITO:
+                contaCorrente.depositar(pedido.getValor());
+                break;
+            case SAQUE:
+                contaCorrente.sacar(pedido.getValor());
+                break;
+            case PIX:
+                contaCorrente.transferir(pedido.getPixDestinatario(), pedido.getValor());
+                break;
+            case TRANSFERENCIA:
+                contaCorrente.transferir(pedido.getAgenciaDestinatario(), pedido.getContaDestinatario(), pedido.getValor());
+                break;
+            case EXTRATO:
+                transacoes = contaCorrente.ultimasTransacoes(pedido.getQuantidadeDeTransacoes());
+                break;
+        }
+        return RespostaDaOperacao.concluida(contaCorrente.getSaldo(), transacoes);
+    }
+
+    // Para de aceitar pedidos e espera os aceitos terminarem
+    @Override
+    public void close() throws InterruptedException {
+        encerrado = true;
+        executor.shutdown();
+        executor.awaitTermination(1L, TimeUnit.MINUTES);
+    }
+}
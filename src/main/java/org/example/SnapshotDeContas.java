@@ -0,0 +1,367 @@
+package org.example;
+
+import lombok.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+// Snapshot binário do estado completo: contas, chaves pix, saldos, extratos e agendamentos pendentes.
+// Versão 3: little-endian, gravada em fluxo e lida via mmap. Os extratos vêm depois de todas as contas, em colunas
+// (todas as datas da conta, depois todos os valores...), então a leitura copia cada coluna de uma vez e o extrato
+// compacto recebe os arrays prontos. As contas entram no registro em um único lote. A versão 2 ainda é lida.
+final class SnapshotDeContas {
+
+    private static final int ASSINATURA = 0x43435331; // "CCS1"
+    private static final int VERSAO = 3; // 2: valores em centavos (long); 3: colunar, little-endian, mmap
+    private static final int SEM_CONTRAPARTE = -1;
+    private static final int TAMANHO_DO_BUFFER = 1 << 20;
+    private static final long TAMANHO_DA_JANELA = 1L << 28; // Trecho do arquivo mapeado por vez (256 MB)
+    private static final int ELEMENTOS_POR_BLOCO = 1 << 20; // Colunas longas são lidas em blocos
+    private static final TipoTransacao[] TIPOS = TipoTransacao.values();
+    private static final NaturezaDoLancamento[] NATUREZAS = NaturezaDoLancamento.values();
+
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    @Getter(AccessLevel.PACKAGE)
+    static final class Conteudo {
+
+        private final long geracaoDoDiario;
+        private final List<ContaCorrente> contas;
+        private final List<Agendamento> agendamentos;
+    }
+
+    private SnapshotDeContas() {
+    }
+
+    // Cada conta é copiada sob a sua trava (saldo, chaves pix e colunas do extrato), então saldo e extrato gravados
+    // sempre concordam, mesmo com lançamentos em andamento. As cópias ficam em memória até o fim da gravação: uns 26
+    // bytes por lançamento, além dos extratos das próprias contas.
+    static void gravar(Path arquivo, long geracaoDoDiario, List<ContaCorrente> contas, List<Agendamento> agendamentos)
+            throws IOException {
+        Map<ContaCorrente, Integer> indices = new IdentityHashMap<>(contas.size() * 2);
+        for (ContaCorrente contaCorrente : contas) indices.put(contaCorrente, indices.size());
+        List<Copia> copias = new ArrayList<>(contas.size());
+        long quantidadeDeLancamentos = 0L;
+        for (ContaCorrente contaCorrente : contas) {
+            Copia copia = contaCorrente.consultarComTrava(() -> new Copia(contaCorrente));
+            copias.add(copia);
+            quantidadeDeLancamentos += copia.valores.length;
+        }
+
+        try (Saida saida = new Saida(FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING))) {
+            saida.garantir(28).putInt(ASSINATURA).putInt(VERSAO).putLong(geracaoDoDiario).putInt(contas.size())
+                 .putLong(quantidadeDeLancamentos);
+
+            for (Copia copia : copias) {
+                ContaCorrente contaCorrente = copia.contaCorrente;
+                saida.escreverTexto(contaCorrente.getAgencia());
+                saida.escreverTexto(contaCorrente.getConta());
+                saida.escreverTexto(contaCorrente.getNomeTitular());
+                saida.garantir(17).put((byte) (copia.compacto ? 1 : 0)).putLong(copia.saldo)
+                     .putInt(copia.valores.length).putInt(copia.chavesPix.size());
+                for (String chavePix : copia.chavesPix) saida.escreverTexto(chavePix);
+            }
+
+            // Extratos depois de todas as contas, para que as contrapartes já existam na leitura
+            for (Copia copia : copias) {
+                for (long segundos : copia.segundos) saida.garantir(8).putLong(segundos);
+                for (long valor : copia.valores) saida.garantir(8).putLong(valor);
+                for (int nano : copia.nanos) saida.garantir(4).putInt(nano);
+                for (ContaCorrente contraparte : copia.contrapartes)
+                    saida.garantir(4).putInt(indices.getOrDefault(contraparte, SEM_CONTRAPARTE));
+                for (byte tipo : copia.tipos) saida.garantir(1).put(tipo);
+                for (byte natureza : copia.naturezas) saida.garantir(1).put(natureza);
+            }
+
+            // Agendamentos de contas que já foram substituídas no registro não têm como ser recuperados
+            List<Agendamento> recuperaveis = new ArrayList<>(agendamentos.size());
+            for (Agendamento agendamento : agendamentos)
+                if (indices.containsKey(agendamento.getContaOrigem()) && indices.containsKey(agendamento.getContaDestinatario()))
+                    recuperaveis.add(agendamento);
+            saida.garantir(4).putInt(recuperaveis.size());
+            for (Agendamento agendamento : recuperaveis) {
+                LocalDateTime data = agendamento.getDataAgendada();
+                saida.garantir(29).putInt(indices.get(agendamento.getContaOrigem()))
+                     .putInt(indices.get(agendamento.getContaDestinatario()))
+                     .putLong(data.toEpochSecond(ZoneOffset.UTC)).putInt(data.getNano())
+                     .put((byte) agendamento.getTipoTransacao().ordinal()).putLong(agendamento.getValorEmCentavos());
+            }
+        }
+    }
+
+    // Recria as contas do snapshot no registro e devolve o que depende do chamador (geração do diário e agendamentos)
+    static Conteudo ler(Path arquivo) throws IOException {
+        try (DataInputStream cabecalho = new DataInputStream(Files.newInputStream(arquivo))) {
+            int assinatura = cabecalho.readInt(), versao = cabecalho.readInt();
+            // A versão 2 foi gravada em big-endian (DataOutputStream); a partir da 3, em little-endian
+            if (assinatura == ASSINATURA && versao == 2) return lerVersao2(arquivo);
+            if (assinatura != Integer.reverseBytes(ASSINATURA) || Integer.reverseBytes(versao) != VERSAO)
+                throw new IOException("Snapshot de contas inválido: " + arquivo + ".");
+        }
+        try (Entrada entrada = new Entrada(FileChannel.open(arquivo, StandardOpenOption.READ))) {
+            ByteBuffer cabecalho = entrada.garantir(28);
+            cabecalho.position(cabecalho.position() + 8); // Assinatura e versão, já conferidas
+            long geracaoDoDiario = cabecalho.getLong();
+            ContaCorrente[] contas = new ContaCorrente[cabecalho.getInt()];
+            cabecalho.getLong(); // Quantidade total de lançamentos (informativa)
+
+            int[] tamanhosDosExtratos = new int[contas.length];
+            for (int i = 0; i < contas.length; i++) {
+                ContaCorrente.AccountBuilder builder = new ContaCorrente.AccountBuilder(entrada.lerTexto(), entrada.lerTexto())
+                                                                        .nomeTitular(entrada.lerTexto());
+                ByteBuffer dados = entrada.garantir(17);
+                if (dados.get() == 1) builder.extratoCompacto();
+                long saldo = dados.getLong();
+                tamanhosDosExtratos[i] = dados.getInt();
+                int quantidadeDeChaves = dados.getInt();
+                List<String> chavesPix = new ArrayList<>(quantidadeDeChaves);
+                for (int chave = 0; chave < quantidadeDeChaves; chave++) chavesPix.add(entrada.lerTexto());
+                contas[i] = builder.pix(chavesPix).buildSemRegistrar();
+                contas[i].restaurarSaldo(saldo);
+            }
+            ContaCorrente.registrarEmLote(contas);
+
+            for (int i = 0; i < contas.length; i++) lerExtrato(entrada, contas, contas[i], tamanhosDosExtratos[i]);
+
+            List<Agendamento> agendamentos = new ArrayList<>();
+            for (int quantidade = entrada.garantir(4).getInt(); quantidade > 0; quantidade--) {
+                ByteBuffer dados = entrada.garantir(29);
+                ContaCorrente origem = contas[dados.getInt()], destino = contas[dados.getInt()];
+                LocalDateTime data = LocalDateTime.ofEpochSecond(dados.getLong(), dados.getInt(), ZoneOffset.UTC);
+                TipoTransacao tipo = TIPOS[dados.get()];
+                agendamentos.add(new Agendamento(0L, origem, destino, tipo, dados.getLong(), data));
+            }
+            return new Conteudo(geracaoDoDiario, Arrays.asList(contas), agendamentos);
+        }
+    }
+
+    private static void lerExtrato(Entrada entrada, ContaCorrente[] contas, ContaCorrente contaCorrente, int tamanho)
+            throws IOException {
+        if (tamanho == 0) return;
+        long[] segundos = new long[tamanho], valores = new long[tamanho];
+        int[] nanos = new int[tamanho], contrapartes = new int[tamanho];
+        byte[] tipos = new byte[tamanho], naturezas = new byte[tamanho];
+        entrada.lerLongs(segundos);
+        entrada.lerLongs(valores);
+        entrada.lerInts(nanos);
+        entrada.lerInts(contrapartes);
+        entrada.lerBytes(tipos);
+        entrada.lerBytes(naturezas);
+
+        Extrato extrato = contaCorrente.getExtrato();
+        if (extrato instanceof ExtratoCompacto) {
+            // As colunas lidas viram o próprio extrato: datas em milissegundos e contrapartes pelo id no registro
+            for (int posicao = 0; posicao < tamanho; posicao++) {
+                segundos[posicao] = segundos[posicao] * 1_000L + nanos[posicao] / 1_000_000;
+                int contraparte = contrapartes[posicao];
+                contrapartes[posicao] = contraparte == SEM_CONTRAPARTE ? SEM_CONTRAPARTE : contas[contraparte].getId();
+            }
+            ((ExtratoCompacto) extrato).carregar(segundos, valores, tipos, naturezas, contrapartes, tamanho);
+            return;
+        }
+        for (int posicao = 0; posicao < tamanho; posicao++) {
+            int contraparte = contrapartes[posicao];
+            extrato.registrar(LocalDateTime.ofEpochSecond(segundos[posicao], nanos[posicao], ZoneOffset.UTC),
+                    TIPOS[tipos[posicao]], NATUREZAS[naturezas[posicao]], valores[posicao],
+                    contraparte == SEM_CONTRAPARTE ? null : contas[contraparte]);
+        }
+    }
+
+    // Formato anterior (DataOutputStream, big-endian, um lançamento por vez)
+    private static Conteudo lerVersao2(Path arquivo) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo), 1 << 16))) {
+            entrada.readInt();
+            entrada.readInt();
+            long geracaoDoDiario = entrada.readLong();
+
+            ContaCorrente[] contas = new ContaCorrente[entrada.readInt()];
+            for (int i = 0; i < contas.length; i++) {
+                ContaCorrente.AccountBuilder builder = new ContaCorrente.AccountBuilder(entrada.readUTF(), entrada.readUTF())
+                                                                        .nomeTitular(entrada.readUTF());
+                if (entrada.readBoolean()) builder.extratoCompacto();
+                long saldo = entrada.readLong();
+                List<String> chavesPix = new ArrayList<>();
+                for (int quantidade = entrada.readInt(); quantidade > 0; quantidade--) chavesPix.add(entrada.readUTF());
+                contas[i] = builder.pix(chavesPix).build();
+                contas[i].restaurarSaldo(saldo);
+            }
+
+            for (ContaCorrente contaCorrente : contas) {
+                Extrato extrato = contaCorrente.getExtrato();
+                for (int quantidade = entrada.readInt(); quantidade > 0; quantidade--) {
+                    LocalDateTime data = lerData(entrada);
+                    TipoTransacao tipo = TIPOS[entrada.readByte()];
+                    NaturezaDoLancamento natureza = NATUREZAS[entrada.readByte()];
+                    long valor = entrada.readLong();
+                    int contraparte = entrada.readInt();
+                    extrato.registrar(data, tipo, natureza, valor, contraparte == SEM_CONTRAPARTE ? null : contas[contraparte]);
+                }
+            }
+
+            List<Agendamento> agendamentos = new ArrayList<>();
+            for (int quantidade = entrada.readInt(); quantidade > 0; quantidade--) {
+                ContaCorrente origem = contas[entrada.readInt()], destino = contas[entrada.readInt()];
+                LocalDateTime data = lerData(entrada);
+                TipoTransacao tipo = TIPOS[entrada.readByte()];
+                agendamentos.add(new Agendamento(0L, origem, destino, tipo, entrada.readLong(), data));
+            }
+            return new Conteudo(geracaoDoDiario, Arrays.asList(contas), agendamentos);
+        }
+    }
+
+    private static LocalDateTime lerData(DataInputStream entrada) throws IOException {
+        long segundos = entrada.readLong();
+        return LocalDateTime.ofEpochSecond(segundos, entrada.readInt(), ZoneOffset.UTC);
+    }
+
+    // Gravação em fluxo por um buffer direto; fsync ao fechar
+    // Estado de uma conta copiado sob a trava dela, nas colunas do snapshot
+    private static final class Copia {
+
+        private final ContaCorrente contaCorrente;
+        private final boolean compacto;
+        private final long saldo;
+        private final List<String> chavesPix;
+        private final long[] segundos;
+        private final int[] nanos;
+        private final long[] valores;
+        private final ContaCorrente[] contrapartes;
+        private final byte[] tipos;
+        private final byte[] naturezas;
+
+        private Copia(ContaCorrente contaCorrente) {
+            this.contaCorrente = contaCorrente;
+            this.compacto = contaCorrente.isExtratoCompacto();
+            this.saldo = contaCorrente.getSaldoEmCentavos();
+            this.chavesPix = new ArrayList<>(contaCorrente.getPix());
+            Extrato extrato = contaCorrente.getExtrato();
+            int tamanho = extrato.tamanho();
+            this.segundos = new long[tamanho];
+            this.nanos = new int[tamanho];
+            this.valores = new long[tamanho];
+            this.contrapartes = new ContaCorrente[tamanho];
+            this.tipos = new byte[tamanho];
+            this.naturezas = new byte[tamanho];
+            for (int posicao = 0; posicao < tamanho; posicao++) {
+                LocalDateTime data = extrato.dataEm(posicao);
+                segundos[posicao] = data.toEpochSecond(ZoneOffset.UTC);
+                nanos[posicao] = data.getNano();
+                valores[posicao] = extrato.valorEm(posicao);
+                contrapartes[posicao] = extrato.contraparteEm(posicao);
+                tipos[posicao] = (byte) extrato.tipoEm(posicao).ordinal();
+                naturezas[posicao] = (byte) extrato.naturezaEm(posicao).ordinal();
+            }
+        }
+    }
+
+    private static final class Saida implements Closeable {
+
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_DO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+
+        private Saida(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        ByteBuffer garantir(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) descarregar();
+            return buffer;
+        }
+
+        void escreverTexto(String texto) throws IOException {
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length + Integer.BYTES > TAMANHO_DO_BUFFER)
+                throw new IOException("Texto longo demais para o snapshot de contas.");
+            garantir(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes);
+        }
+
+        private void descarregar() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) canal.write(buffer);
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                descarregar();
+                canal.force(true);
+            } finally {
+                canal.close();
+            }
+        }
+    }
+
+    // Leitura pelo arquivo mapeado em memória, uma janela por vez (o arquivo pode passar de 2 GB)
+    private static final class Entrada implements Closeable {
+
+        private final FileChannel canal;
+        private final long tamanhoDoArquivo;
+        private MappedByteBuffer janela;
+        private long inicioDaJanela;
+
+        private Entrada(FileChannel canal) throws IOException {
+            this.canal = canal;
+            this.tamanhoDoArquivo = canal.size();
+        }
+
+        // A janela atual com pelo menos `bytes` disponíveis a partir da posição de leitura
+        ByteBuffer garantir(int bytes) throws IOException {
+            if (janela != null && janela.remaining() >= bytes) return janela;
+            long posicao = janela == null ? 0L : inicioDaJanela + janela.position();
+            if (posicao + bytes > tamanhoDoArquivo) throw new EOFException("Snapshot de contas incompleto.");
+            long tamanhoDaJanela = Math.min(Math.max(TAMANHO_DA_JANELA, bytes), tamanhoDoArquivo - posicao);
+            janela = canal.map(FileChannel.MapMode.READ_ONLY, posicao, tamanhoDaJanela);
+            janela.order(ByteOrder.LITTLE_ENDIAN);
+            inicioDaJanela = posicao;
+            return janela;
+        }
+
+        String lerTexto() throws IOException {
+            int tamanho = garantir(Integer.BYTES).getInt();
+            byte[] bytes = new byte[tamanho];
+            garantir(tamanho).get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        void lerLongs(long[] destino) throws IOException {
+            for (int inicio = 0; inicio < destino.length; inicio += ELEMENTOS_POR_BLOCO) {
+                int quantidade = Math.min(ELEMENTOS_POR_BLOCO, destino.length - inicio);
+                ByteBuffer dados = garantir(quantidade * Long.BYTES);
+                dados.asLongBuffer().get(destino, inicio, quantidade);
+                dados.position(dados.position() + quantidade * Long.BYTES);
+            }
+        }
+
+        void lerInts(int[] destino) throws IOException {
+            for (int inicio = 0; inicio < destino.length; inicio += ELEMENTOS_POR_BLOCO) {
+                int quantidade = Math.min(ELEMENTOS_POR_BLOCO, destino.length - inicio);
+                ByteBuffer dados = garantir(quantidade * Integer.BYTES);
+                dados.asIntBuffer().get(destino, inicio, quantidade);
+                dados.position(dados.position() + quantidade * Integer.BYTES);
+            }
+        }
+
+        void lerBytes(byte[] destino) throws IOException {
+            for (int inicio = 0; inicio < destino.length; inicio += ELEMENTOS_POR_BLOCO) {
+                int quantidade = Math.min(ELEMENTOS_POR_BLOCO, destino.length - inicio);
+                garantir(quantidade).get(destino, inicio, quantidade);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+}
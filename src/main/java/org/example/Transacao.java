@@ -2,12 +2,15 @@ package org.example;
 
 import lombok.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 
 @AllArgsConstructor
 @NonNull
 @Getter
 @Setter
+@EqualsAndHashCode // Por valor: o extrato entrega cópias dos lançamentos
 public class Transacao implements Cloneable {
 
     private LocalDateTime dataTransacao;
@@ -21,9 +24,13 @@ public class Transacao implements Cloneable {
     }
 
     public String formatarParaExtrato() {
-        return formatarDataEHora(dataTransacao.getDayOfMonth() + "") + "/" + formatarDataEHora(dataTransacao.getMonthValue() + "") + "/"
-                + dataTransacao.getYear() + " " + formatarDataEHora(dataTransacao.getHour() + "") + ":"
-                + formatarDataEHora(dataTransacao.getMinute() + "") + " - " + tipoTransacao + ": " + descricao;
+        StringBuilder linha = new StringBuilder(32 + descricao.length());
+        try {
+            FormatoDoExtrato.escreverLinhaDeTexto(this, linha);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException); // StringBuilder não lança IOException
+        }
+        return linha.toString();
     }
 
     @Override
@@ -0,0 +1,152 @@
+import org.example.AgendadorDeTransferencias;
+import org.example.Agendamento;
+import org.example.ContaCorrente;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Testes do agendador com relógio controlado: nada de esperar o tempo passar
+public class AgendadorDeTransferenciasTeste {
+
+    private final RelogioAjustavel relogio = new RelogioAjustavel(Instant.now());
+    private final AgendadorDeTransferencias agendador = new AgendadorDeTransferencias(relogio);
+
+    public ContaCorrente contaAna = new ContaCorrente.AccountBuilder("8000", "80000-1")
+                                                     .nomeTitular("Ana")
+                                                     .pix(new ArrayList<>())
+                                                     .build();
+
+    public ContaCorrente contaBia = new ContaCorrente.AccountBuilder("8000", "80000-2")
+                                                     .nomeTitular("Bia")
+                                                     .pix(new ArrayList<>(List.of("bia@email.com")))
+                                                     .build();
+
+    @AfterEach
+    void restaurarAgendador() {
+        ContaCorrente.usarAgendador(null);
+    }
+
+    @Test
+    void executarAgendamentosVencidosECancelarPendentes() throws CloneNotSupportedException {
+        ContaCorrente.usarAgendador(agendador);
+        contaAna.depositar(BigDecimal.valueOf(100));
+        LocalDateTime agora = LocalDateTime.now(relogio);
+
+        contaAna.transferir(agora.plusDays(1), "bia@email.com", BigDecimal.valueOf(30));
+        contaAna.transferir(agora.plusDays(2), "8000", "80000-2", BigDecimal.valueOf(50));
+        contaAna.transferir(agora.plusDays(3), "bia@email.com", BigDecimal.valueOf(10));
+
+        List<Agendamento> agendamentos = contaAna.listarAgendamentos();
+        assertEquals(3, agendamentos.size());
+        assertEquals(BigDecimal.valueOf(100), contaAna.getSaldo());
+        assertTrue(contaAna.cancelarAgendamento(agendamentos.get(2).getId()));
+        assertFalse(contaBia.cancelarAgendamento(agendamentos.get(0).getId())); // Errado: agendamento de outra conta
+        assertEquals(2, contaAna.listarAgendamentos().size());
+
+        assertEquals(0, agendador.executarVencidos());
+        relogio.avancar(Duration.ofDays(1).plusMinutes(1));
+        assertEquals(1, agendador.executarVencidos());
+        assertEquals(BigDecimal.valueOf(70), contaAna.getSaldo());
+        assertEquals(BigDecimal.valueOf(30), contaBia.getSaldo());
+
+        relogio.avancar(Duration.ofDays(5));
+        assertEquals(1, agendador.executarVencidos());
+        assertEquals(BigDecimal.valueOf(20), contaAna.getSaldo());
+        assertEquals(BigDecimal.valueOf(80), contaBia.getSaldo());
+        assertEquals(Agendamento.Situacao.CANCELADO, agendamentos.get(2).getSituacao());
+        assertEquals(0, agendador.quantidadePendente());
+
+        // Os lançamentos de agendamento deram lugar às transferências feitas; o cancelado saiu do extrato
+        List<String> extrato = descricoes(contaAna, agora);
+        assertEquals(3, extrato.size());
+        assertTrue(extrato.get(0).contains("DEPÓSITO: +100"));
+        assertTrue(extrato.get(1).contains("Transferência feita: -30"));
+        assertTrue(extrato.get(2).contains("Transferência feita: -50"));
+    }
+
+    @Test
+    void lancamentosSeguemORelogioDoAgendador() throws CloneNotSupportedException {
+        ContaCorrente.usarAgendador(agendador);
+        relogio.avancar(Duration.ofDays(400));
+        contaAna.depositar(BigDecimal.valueOf(10));
+        LocalDateTime agora = LocalDateTime.now(relogio);
+        assertEquals(1, contaAna.consultarExtrato(agora.minusMinutes(1), agora.plusMinutes(1)).size());
+
+        // Um agendamento para amanhã pelo relógio real já é passado pelo relógio do agendador
+        assertThrows(IllegalArgumentException.class,
+                () -> contaAna.transferir(LocalDateTime.now().plusDays(1), "bia@email.com", BigDecimal.ONE));
+    }
+
+    @Test
+    void recusarAgendamentoSemSaldoNoVencimento() throws CloneNotSupportedException {
+        ContaCorrente.usarAgendador(agendador);
+        contaAna.depositar(BigDecimal.valueOf(20));
+
+        contaAna.transferir(LocalDateTime.now(relogio).plusHours(1), "bia@email.com", BigDecimal.valueOf(20));
+        Agendamento agendamento = contaAna.listarAgendamentos().get(0);
+        contaAna.sacar(BigDecimal.valueOf(20));
+
+        relogio.avancar(Duration.ofHours(2));
+        assertEquals(0, agendador.executarVencidos());
+        assertEquals(Agendamento.Situacao.RECUSADO, agendamento.getSituacao());
+        assertEquals(BigDecimal.ZERO, contaBia.getSaldo());
+        assertTrue(descricoes(contaAna, LocalDateTime.now(relogio).minusHours(3)).stream()
+                                                                       .noneMatch(descricao -> descricao.contains("agendada")));
+    }
+
+    @Test
+    void falhaDeUmAgendamentoNaoInterrompeOsDemais() throws CloneNotSupportedException {
+        ContaCorrente.usarAgendador(agendador);
+        contaAna.depositar(BigDecimal.valueOf(20));
+        LocalDateTime agora = LocalDateTime.now(relogio);
+        contaAna.transferir(agora.plusHours(1), "bia@email.com", BigDecimal.TEN);
+        Agendamento estouro = contaAna.listarAgendamentos().get(0);
+        contaBia.depositar(new BigDecimal(Long.MAX_VALUE).movePointLeft(2)); // O crédito de Ana estoura o saldo de Bia
+        contaBia.transferir(agora.plusHours(2), "8000", "80000-1", BigDecimal.valueOf(5));
+
+        relogio.avancar(Duration.ofHours(3));
+        assertEquals(1, agendador.executarVencidos());
+        assertEquals(Agendamento.Situacao.RECUSADO, estouro.getSituacao());
+        assertEquals(BigDecimal.valueOf(25), contaAna.getSaldo());
+        assertEquals(0, agendador.quantidadePendente());
+    }
+
+    private List<String> descricoes(ContaCorrente contaCorrente, LocalDateTime de) {
+        List<String> descricoes = new ArrayList<>();
+        contaCorrente.consultarExtrato(de.minusMinutes(1), LocalDateTime.now(relogio).plusDays(30))
+                     .forEach(transacao -> descricoes.add(transacao.getDescricao()));
+        return descricoes;
+    }
+
+    private static class RelogioAjustavel extends Clock {
+
+        private Instant instante;
+
+        RelogioAjustavel(Instant instante) {
+            this.instante = instante;
+        }
+
+        void avancar(Duration duracao) {
+            instante = instante.plus(duracao);
+        }
+
+        @Override public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override public Clock withZone(ZoneId zona) {
+            return this;
+        }
+
+        @Override public Instant instant() {
+            return instante;
+        }
+    }
+}
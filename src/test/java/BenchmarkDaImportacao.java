@@ -0,0 +1,46 @@
+import org.example.ContaCorrente;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Partida a frio: "gerar" monta as contas pela API (AccountBuilder, chave pix e depósitos) e exporta;
+// "carregar", em outra JVM, mede a importação do arquivo.
+// Uso: java -Xms4g -Xmx4g -cp target/classes:target/test-classes BenchmarkDaImportacao gerar <arquivo> [contas] [lancamentosPorConta]
+//      java -Xms4g -Xmx4g -cp target/classes:target/test-classes BenchmarkDaImportacao carregar <arquivo>
+public class BenchmarkDaImportacao {
+
+    public static void main(String[] args) throws Exception {
+        Path arquivo = Path.of(args[1]);
+        if (args[0].equals("gerar")) {
+            int quantidadeDeContas = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+            int lancamentosPorConta = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+            long inicio = System.nanoTime();
+            for (int i = 0; i < quantidadeDeContas; i++) {
+                ContaCorrente contaCorrente = new ContaCorrente.AccountBuilder("3200", "32000-" + i)
+                                                               .nomeTitular("Titular " + i)
+                                                               .pix(new ArrayList<>(List.of("titular" + i + "@importacao.com")))
+                                                               .extratoCompacto()
+                                                               .build();
+                for (int lancamento = 0; lancamento < lancamentosPorConta; lancamento++)
+                    contaCorrente.depositar(BigDecimal.valueOf(lancamento % 10_000 + 1, 2));
+            }
+            double segundosMontando = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf("Montagem pela API: %,d contas, %,d lançamentos em %.1f s%n", quantidadeDeContas,
+                    (long) quantidadeDeContas * lancamentosPorConta, segundosMontando);
+
+            inicio = System.nanoTime();
+            ContaCorrente.exportarContas(arquivo);
+            System.out.printf("Exportação: %.1f s, %,d bytes%n", (System.nanoTime() - inicio) / 1e9, Files.size(arquivo));
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        int quantidadeDeContas = ContaCorrente.importarContas(arquivo);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("Importação: %,d contas, %,d bytes em %.1f s (%,.0f MB/s)%n", quantidadeDeContas,
+                Files.size(arquivo), segundos, Files.size(arquivo) / 1e6 / segundos);
+    }
+}
@@ -0,0 +1,53 @@
+import org.example.ContaCorrente;
+import org.example.DiarioDeOperacoes;
+import org.example.InstrucaoDeTransferencia;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Vazão da liquidação de um arquivo de pagamentos: pix um a um (transferir) contra o lote (transferirEmLote).
+// Com um diretório, as operações passam pelo diário: cada pix individual espera o seu fsync, o lote espera um só.
+// Uso: java -cp target/classes:target/test-classes BenchmarkDaLiquidacaoEmLote [destinatarios] [rodadas] [diretorio]
+public class BenchmarkDaLiquidacaoEmLote {
+
+    public static void main(String[] args) throws CloneNotSupportedException, IOException {
+        int quantidadeDeDestinatarios = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int rodadas = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        DiarioDeOperacoes diario = args.length > 2 ? DiarioDeOperacoes.abrir(Path.of(args[2])) : null;
+
+        ContaCorrente contaPagadora = new ContaCorrente.AccountBuilder("3000", "30000-0")
+                                                       .nomeTitular("Pagadora")
+                                                       .pix(new ArrayList<>())
+                                                       .extratoCompacto()
+                                                       .build();
+        List<InstrucaoDeTransferencia> instrucoes = new ArrayList<>(quantidadeDeDestinatarios);
+        for (int i = 1; i <= quantidadeDeDestinatarios; i++) {
+            String chavePix = "favorecido" + i + "@folha.com";
+            new ContaCorrente.AccountBuilder("3000", "30000-" + i)
+                             .nomeTitular("Favorecido " + i)
+                             .pix(new ArrayList<>(List.of(chavePix)))
+                             .extratoCompacto()
+                             .build();
+            instrucoes.add(InstrucaoDeTransferencia.pix(chavePix, BigDecimal.valueOf(i % 500_000 + 100, 2)));
+        }
+        contaPagadora.depositar(BigDecimal.valueOf(1_000_000_000_000L));
+
+        for (int rodada = 1; rodada <= rodadas; rodada++) {
+            long inicio = System.nanoTime();
+            for (InstrucaoDeTransferencia instrucao : instrucoes)
+                contaPagadora.transferir(instrucao.getPixDestinatario(), instrucao.getValor());
+            double segundosIndividuais = (System.nanoTime() - inicio) / 1e9;
+
+            inicio = System.nanoTime();
+            contaPagadora.transferirEmLote(instrucoes);
+            double segundosEmLote = (System.nanoTime() - inicio) / 1e9;
+
+            System.out.printf("Rodada %d: um a um %,.0f pix/s | em lote %,.0f pix/s%n", rodada,
+                    quantidadeDeDestinatarios / segundosIndividuais, quantidadeDeDestinatarios / segundosEmLote);
+        }
+        if (diario != null) diario.close();
+    }
+}
@@ -0,0 +1,50 @@
+import org.example.ContaCorrente;
+import org.example.ContasParticionadas;
+import org.example.RespostaDaOperacao;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+
+// Vazão de transferências aleatórias entre contas com 1, 2, 4... até N partições (a maioria entre partições,
+// em duas fases). Mantém um número fixo de transferências em andamento.
+// Uso: java -cp target/classes:target/test-classes BenchmarkDasParticoes [transferencias] [maxParticoes] [contas] [emAndamento]
+public class BenchmarkDasParticoes {
+
+    public static void main(String[] args) throws Exception {
+        int quantidadeDeTransferencias = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int maximoDeParticoes = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int quantidadeDeContas = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int emAndamento = args.length > 3 ? Integer.parseInt(args[3]) : 4_096;
+
+        for (int i = 0; i < quantidadeDeContas; i++)
+            new ContaCorrente.AccountBuilder("3100", "31000-" + i)
+                             .nomeTitular("Titular " + i)
+                             .pix(new ArrayList<>())
+                             .extratoCompacto()
+                             .build()
+                             .depositar(BigDecimal.valueOf(1_000_000_000L));
+
+        for (int particoes = 1; particoes <= maximoDeParticoes; particoes *= 2) {
+            Semaphore vagas = new Semaphore(emAndamento);
+            SplittableRandom aleatorio = new SplittableRandom(42L);
+            long inicio = System.nanoTime();
+            try (ContasParticionadas contasParticionadas = new ContasParticionadas(particoes)) {
+                for (int i = 0; i < quantidadeDeTransferencias; i++) {
+                    int origem = aleatorio.nextInt(quantidadeDeContas);
+                    int destino = (origem + 1 + aleatorio.nextInt(quantidadeDeContas - 1)) % quantidadeDeContas;
+                    vagas.acquire();
+                    contasParticionadas.transferir(particoes + "-" + i, "3100", "31000-" + origem,
+                                    "3100", "31000-" + destino, BigDecimal.valueOf(aleatorio.nextInt(1, 10_000), 2))
+                            .thenAccept(RespostaDaOperacao::getSituacao)
+                            .whenComplete((situacao, falha) -> vagas.release());
+                }
+                vagas.acquire(emAndamento);
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf("%d partição(ões): %,d transferências em %.1f s (%,.0f transferências/s)%n",
+                    particoes, quantidadeDeTransferencias, segundos, quantidadeDeTransferencias / segundos);
+        }
+    }
+}
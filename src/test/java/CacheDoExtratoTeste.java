@@ -0,0 +1,115 @@
+import org.example.ContaCorrente;
+import org.example.FormatoDoExtrato;
+import org.example.FotografiaDoCacheDoExtrato;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheDoExtratoTeste {
+
+    public ContaCorrente contaAna = new ContaCorrente.AccountBuilder("1700", "17000-1")
+                                                     .nomeTitular("Ana")
+                                                     .pix(new ArrayList<>(List.of("ana@cache.com")))
+                                                     .build();
+
+    public ContaCorrente contaBia = new ContaCorrente.AccountBuilder("1700", "17000-2")
+                                                     .nomeTitular("Bia")
+                                                     .pix(new ArrayList<>(List.of("bia@cache.com")))
+                                                     .extratoCompacto()
+                                                     .build();
+
+    // Cada teste conta acertos e faltas em um cache só dele, vazio, independente da ordem dos testes
+    @BeforeEach
+    void instalarCache() {
+        ContaCorrente.usarCacheDoExtrato(1L << 20);
+    }
+
+    @AfterEach
+    void restaurarCache() {
+        ContaCorrente.usarCacheDoExtrato(64L << 20);
+    }
+
+    @Test
+    void paginasGuardadasSaoReaproveitadas() throws IOException {
+        for (int deposito = 1; deposito <= 150; deposito++) contaBia.depositar(BigDecimal.valueOf(deposito));
+
+        for (FormatoDoExtrato formato : FormatoDoExtrato.values())
+            assertEquals(esperado(contaBia, formato), codificado(contaBia, formato));
+        FotografiaDoCacheDoExtrato primeira = ContaCorrente.fotografarCacheDoExtrato();
+        assertEquals(0L, primeira.getAcertos());
+        assertEquals(9L, primeira.getFaltas()); // Três páginas em cada formato
+        assertEquals(9, primeira.getPaginas());
+
+        assertEquals(esperado(contaBia, FormatoDoExtrato.CSV), codificado(contaBia, FormatoDoExtrato.CSV));
+        assertEquals(3L, ContaCorrente.fotografarCacheDoExtrato().getAcertos());
+
+        // Lançamento novo: só a última página é estendida
+        contaBia.sacar(BigDecimal.ONE);
+        assertEquals(esperado(contaBia, FormatoDoExtrato.CSV), codificado(contaBia, FormatoDoExtrato.CSV));
+        FotografiaDoCacheDoExtrato depois = ContaCorrente.fotografarCacheDoExtrato();
+        assertEquals(5L, depois.getAcertos());
+        assertEquals(1L, depois.getExtensoes());
+        assertEquals(9L, depois.getFaltas());
+        assertEquals(5.0 / 15.0, depois.getTaxaDeAcerto(), 1e-9);
+    }
+
+    @Test
+    void lancamentoAntesDeAgendamentoRefazApenasAsPaginasDeslocadas() throws IOException, CloneNotSupportedException {
+        for (int deposito = 1; deposito <= 100; deposito++) contaAna.depositar(BigDecimal.valueOf(deposito));
+        contaAna.transferir(LocalDateTime.now().plusDays(2L), "bia@cache.com", BigDecimal.ONE);
+        assertEquals(esperado(contaAna, FormatoDoExtrato.TEXTO), codificado(contaAna, FormatoDoExtrato.TEXTO));
+
+        contaAna.depositar(BigDecimal.valueOf(7)); // Entra antes do agendamento, na segunda página
+        assertEquals(esperado(contaAna, FormatoDoExtrato.TEXTO), codificado(contaAna, FormatoDoExtrato.TEXTO));
+        FotografiaDoCacheDoExtrato fotografia = ContaCorrente.fotografarCacheDoExtrato();
+        assertEquals(1L, fotografia.getAcertos());
+        assertEquals(3L, fotografia.getFaltas());
+    }
+
+    @Test
+    void agendamentoCanceladoNoFimDaPaginaMudaAVersao() throws IOException, CloneNotSupportedException {
+        for (int deposito = 1; deposito <= 64; deposito++) contaAna.depositar(BigDecimal.valueOf(deposito));
+        contaAna.transferir(LocalDateTime.now().plusDays(2L), "bia@cache.com", BigDecimal.ONE); // Sozinho na segunda página
+        assertEquals(esperado(contaAna, FormatoDoExtrato.CSV), codificado(contaAna, FormatoDoExtrato.CSV));
+
+        // A segunda página fica vazia e volta a ter um lançamento, agora outro
+        assertTrue(contaAna.cancelarAgendamento(contaAna.listarAgendamentos().get(0).getId()));
+        contaAna.depositar(BigDecimal.valueOf(65));
+        assertEquals(esperado(contaAna, FormatoDoExtrato.CSV), codificado(contaAna, FormatoDoExtrato.CSV));
+    }
+
+    @Test
+    void capacidadeLimitaAMemoria() throws IOException {
+        ContaCorrente.usarCacheDoExtrato(4_096L);
+        for (int deposito = 1; deposito <= 640; deposito++) contaAna.depositar(BigDecimal.valueOf(deposito));
+        assertEquals(esperado(contaAna, FormatoDoExtrato.JSON_LINHAS), codificado(contaAna, FormatoDoExtrato.JSON_LINHAS));
+        FotografiaDoCacheDoExtrato fotografia = ContaCorrente.fotografarCacheDoExtrato();
+        assertTrue(fotografia.getBytes() <= 4_096L);
+        assertTrue(fotografia.getPaginas() < 10);
+
+        assertThrows(IllegalArgumentException.class, () -> ContaCorrente.usarCacheDoExtrato(0L));
+    }
+
+    private static String esperado(ContaCorrente contaCorrente, FormatoDoExtrato formato) throws IOException {
+        StringBuilder texto = new StringBuilder();
+        contaCorrente.escreverExtrato(texto, formato);
+        return texto.toString();
+    }
+
+    private static String codificado(ContaCorrente contaCorrente, FormatoDoExtrato formato) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        contaCorrente.escreverExtratoCodificado(bytes, formato);
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+}
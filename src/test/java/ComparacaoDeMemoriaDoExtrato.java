@@ -0,0 +1,45 @@
+import org.example.ContaCorrente;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+
+// Comparação do consumo de heap entre o extrato em List<Transacao> e o extrato colunar (compacto).
+// Uso: java -cp target/classes:target/test-classes ComparacaoDeMemoriaDoExtrato [quantidadeDeLancamentos]
+public class ComparacaoDeMemoriaDoExtrato {
+
+    public static void main(String[] args) throws InterruptedException {
+        int quantidadeDeLancamentos = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        long bytesDaLista = medir(new ContaCorrente.AccountBuilder("7000", "70000-1")
+                                                   .nomeTitular("Lista")
+                                                   .pix(new ArrayList<>()), quantidadeDeLancamentos);
+        long bytesDoCompacto = medir(new ContaCorrente.AccountBuilder("7000", "70000-2")
+                                                      .nomeTitular("Compacto")
+                                                      .pix(new ArrayList<>())
+                                                      .extratoCompacto(), quantidadeDeLancamentos);
+
+        System.out.printf("Lançamentos: %,d%n", quantidadeDeLancamentos);
+        System.out.printf("List<Transacao>: %,d bytes (%.1f bytes/lançamento)%n",
+                bytesDaLista, (double) bytesDaLista / quantidadeDeLancamentos);
+        System.out.printf("Extrato compacto: %,d bytes (%.1f bytes/lançamento)%n",
+                bytesDoCompacto, (double) bytesDoCompacto / quantidadeDeLancamentos);
+    }
+
+    private static long medir(ContaCorrente.AccountBuilder builder, int quantidadeDeLancamentos) throws InterruptedException {
+        long antes = heapOcupado();
+        ContaCorrente contaCorrente = builder.build();
+        for (int i = 1; i <= quantidadeDeLancamentos; i++) contaCorrente.depositar(BigDecimal.valueOf(i % 10_000 + 1, 2));
+        long depois = heapOcupado();
+        if (contaCorrente.getSaldo().signum() <= 0) throw new IllegalStateException(); // mantém a conta viva até aqui
+        return depois - antes;
+    }
+
+    private static long heapOcupado() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100L);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
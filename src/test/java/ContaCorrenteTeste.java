@@ -1,10 +1,22 @@
 import org.example.ContaCorrente;
+import org.example.FormatoDoExtrato;
+import org.example.PaginaDoExtrato;
+import org.example.SaidaEmByteBuffer;
+import org.example.Transacao;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -57,6 +69,66 @@ public class ContaCorrenteTeste {
         assertEquals(2, contaPedro.getPix().size());
     }
 
+    @Test
+    void garantirUnicidadeEBuscaExataDasChavesPix() {
+        testarInstanciasENovasChavesPix();
+
+        assertThrows(IllegalArgumentException.class, () -> contaPedro.adicionarPix("paulo@email.com")); // Errado
+        assertThrows(IllegalArgumentException.class, () -> contaPedro.transferir("ulo@email.com", BigDecimal.ONE)); // Errado
+        assertEquals(2, contaPedro.getPix().size());
+        // A lista de chaves só muda pelo cadastro, que também atualiza o diretório pix
+        assertThrows(UnsupportedOperationException.class, () -> contaPedro.getPix().add("paulo@email.com"));
+    }
+
+    @Test
+    void adicionarChavesPixEmLote() {
+        testarInstanciasENovasChavesPix();
+        Map<String, ContaCorrente> lote = new LinkedHashMap<>();
+        for (int i = 0; i < 1_000; i++) lote.put("paulo" + i + "@lote.com", contaPaulo);
+        lote.put("pedro@lote.com", contaPedro);
+        ContaCorrente.adicionarPixEmLote(lote);
+        assertEquals(1_002, contaPaulo.getPix().size());
+        assertEquals("paulo999@lote.com", contaPaulo.getPix().get(1_001));
+        assertEquals(3, contaPedro.getPix().size());
+
+        // Tudo ou nada: uma chave de outra conta recusa o lote inteiro
+        Map<String, ContaCorrente> emConflito = new LinkedHashMap<>();
+        emConflito.put("pedro@outro-lote.com", contaPedro);
+        emConflito.put("paulo@email.com", contaPedro);
+        assertThrows(IllegalArgumentException.class, () -> ContaCorrente.adicionarPixEmLote(emConflito));
+        assertEquals(3, contaPedro.getPix().size());
+        assertDoesNotThrow(() -> contaPaulo.adicionarPix("pedro@outro-lote.com"));
+    }
+
+    @Test
+    void disputarChavesPixEntreCadastroEAdicao() throws InterruptedException {
+        ContaCorrente disputante = new ContaCorrente.AccountBuilder("1800", "18000-1")
+                                                    .nomeTitular("Disputante")
+                                                    .pix(new ArrayList<>())
+                                                    .build();
+        List<String> chaves = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) chaves.add("disputa" + i + "@email.com");
+        Thread adicoes = new Thread(() -> chaves.forEach(chave -> {
+            try {
+                disputante.adicionarPix(chave);
+            } catch (IllegalArgumentException jaCadastrada) {
+                // A outra conta ficou com a chave
+            }
+        }));
+        adicoes.start();
+        ContaCorrente cadastrada;
+        try {
+            cadastrada = new ContaCorrente.AccountBuilder("1800", "18000-2").nomeTitular("Cadastro").pix(chaves).build();
+        } catch (IllegalArgumentException chaveTomada) {
+            cadastrada = null;
+        }
+        adicoes.join();
+
+        // Cada chave pertence a uma única conta
+        if (cadastrada != null)
+            for (String chave : chaves) assertFalse(cadastrada.getPix().contains(chave) && disputante.getPix().contains(chave));
+    }
+
     @Test
     void realizarDepositoESaqueNasContas() throws IllegalArgumentException {
         testarInstanciasENovasChavesPix();
@@ -121,4 +193,102 @@ public class ContaCorrenteTeste {
 
         System.out.println("--------------------------------------------------------");
     }
+
+    @Test
+    void consultarExtratoPorIntervaloEPaginas() {
+        LocalDateTime inicio = LocalDateTime.now().minusSeconds(1L);
+        for (int i = 1; i <= 5; i++) contaPaulo.depositar(BigDecimal.valueOf(i));
+        LocalDateTime fim = LocalDateTime.now().plusSeconds(1L);
+
+        assertEquals(5, contaPaulo.consultarExtrato(inicio, fim).size());
+        assertTrue(contaPaulo.consultarExtrato(fim, fim.plusDays(1L)).isEmpty());
+
+        List<Transacao> paginadas = new ArrayList<>();
+        PaginaDoExtrato pagina = contaPaulo.consultarExtrato(inicio, fim, null, 2);
+        paginadas.addAll(pagina.getTransacoes());
+        while (pagina.temProximaPagina()) {
+            pagina = contaPaulo.consultarExtrato(inicio, fim, pagina.getProximoCursor(), 2);
+            paginadas.addAll(pagina.getTransacoes());
+        }
+        assertEquals(contaPaulo.consultarExtrato(inicio, fim), paginadas);
+
+        List<Transacao> ultimas = contaPaulo.ultimasTransacoes(2);
+        assertEquals(2, ultimas.size());
+        assertEquals("DEPÓSITO: +5", ultimas.get(1).getDescricao());
+    }
+
+    @Test
+    void alterarTransacaoConsultadaNaoAlteraOExtrato() {
+        contaPaulo.depositar(BigDecimal.valueOf(3));
+        Transacao consultada = contaPaulo.ultimasTransacoes(1).get(0);
+        consultada.setDataTransacao(LocalDateTime.now().minusYears(1L));
+        consultada.setDescricao("alterada");
+
+        Transacao noExtrato = contaPaulo.ultimasTransacoes(1).get(0);
+        assertEquals("DEPÓSITO: +3", noExtrato.getDescricao());
+        assertNotEquals(consultada, noExtrato);
+    }
+
+    @Test
+    void escreverExtratoEmFormatosDiferentes() throws IOException {
+        contaPaulo.depositar(BigDecimal.valueOf(7));
+        String linhaDeTexto = contaPaulo.ultimasTransacoes(1).get(0).formatarParaExtrato();
+
+        StringWriter csv = new StringWriter();
+        contaPaulo.escreverExtrato(csv, FormatoDoExtrato.CSV);
+        assertTrue(csv.toString().startsWith("data,tipo,descricao\n"));
+        assertTrue(csv.toString().endsWith(",Depósito,\"DEPÓSITO: +7\"\n"));
+
+        StringBuilder jsonLinhas = new StringBuilder();
+        contaPaulo.escreverExtrato(jsonLinhas, FormatoDoExtrato.JSON_LINHAS);
+        assertTrue(jsonLinhas.toString().endsWith("\"tipo\":\"Depósito\",\"descricao\":\"DEPÓSITO: +7\"}\n"));
+
+        ByteBuffer buffer = ByteBuffer.allocate(1_024);
+        contaPaulo.escreverExtrato(new SaidaEmByteBuffer(buffer), FormatoDoExtrato.TEXTO);
+        String texto = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        assertTrue(texto.startsWith("---------- EXTRATO: ----------\n"));
+        assertTrue(texto.endsWith(linhaDeTexto + "\n"));
+    }
+
+    @Test
+    void codificarTextoMalFormadoComoOGetBytes() throws IOException {
+        for (String texto : List.of("a\uD800b", "\uDC00x", "x\uD800\uD800y", "\uD800\uD83D\uDE00", "\uDE00\uD83D",
+                "ç\uD83D\uDE00€")) {
+            ByteBuffer buffer = ByteBuffer.allocate(64);
+            SaidaEmByteBuffer saida = new SaidaEmByteBuffer(buffer);
+            saida.append(texto).append('.');
+            assertArrayEquals((texto + ".").getBytes(StandardCharsets.UTF_8), Arrays.copyOf(buffer.array(), buffer.position()));
+        }
+    }
+
+    @Test
+    void manterMesmaVisaoDoExtratoNoFormatoCompacto() throws CloneNotSupportedException {
+        ContaCorrente contaMaria = new ContaCorrente.AccountBuilder("0003", "00000-3")
+                                                    .nomeTitular("Maria")
+                                                    .pix(new ArrayList<>())
+                                                    .extratoCompacto()
+                                                    .build();
+        LocalDateTime inicio = LocalDateTime.now().minusSeconds(1L);
+        contaMaria.depositar(BigDecimal.valueOf(22.80));
+        contaMaria.sacar(BigDecimal.valueOf(1.50));
+        contaMaria.transferir("0001", "00000-1", BigDecimal.valueOf(10));
+
+        List<Transacao> extrato = contaMaria.consultarExtrato(inicio, LocalDateTime.now().plusMinutes(1L));
+        assertEquals(3, extrato.size());
+        assertEquals("DEPÓSITO: +22.8", extrato.get(0).getDescricao());
+        assertEquals("SAQUE: -1.5;", extrato.get(1).getDescricao());
+        assertEquals("Transferência feita: -10 => DE Maria; PARA Paulo;", extrato.get(2).getDescricao());
+        assertEquals(11.3d, contaMaria.getSaldo().doubleValue());
+    }
+
+    @Test
+    void arredondarValoresParaCentavos() {
+        contaPaulo.depositar(new BigDecimal("0.125")); // HALF_EVEN: 0.12
+        contaPaulo.depositar(new BigDecimal("0.135")); // HALF_EVEN: 0.14
+        assertEquals(BigDecimal.valueOf(0.26), contaPaulo.getSaldo());
+
+        assertThrows(IllegalArgumentException.class, () -> contaPaulo.depositar(new BigDecimal("0.004"))); // Errado: arredonda para zero
+        assertThrows(IllegalArgumentException.class, () -> contaPaulo.depositar(new BigDecimal("1E+30"))); // Errado: fora do limite
+        assertEquals(BigDecimal.valueOf(0.26), contaPaulo.getSaldo());
+    }
 }
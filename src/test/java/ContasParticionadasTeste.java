@@ -0,0 +1,123 @@
+import org.example.ContaCorrente;
+import org.example.ContasParticionadas;
+import org.example.RespostaDaOperacao;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContasParticionadasTeste {
+
+    @Test
+    void conservarDinheiroEntreParticoes() throws InterruptedException {
+        List<ContaCorrente> contas = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ContaCorrente contaCorrente = new ContaCorrente.AccountBuilder("1300", "13000-" + i)
+                                                           .nomeTitular("Titular " + i)
+                                                           .pix(new ArrayList<>(List.of("titular" + i + "@particoes.com")))
+                                                           .build();
+            contaCorrente.depositar(BigDecimal.valueOf(100));
+            contas.add(contaCorrente);
+        }
+
+        List<CompletableFuture<RespostaDaOperacao>> respostas = new ArrayList<>();
+        try (ContasParticionadas contasParticionadas = new ContasParticionadas(4)) {
+            Random aleatorio = new Random(7L);
+            for (int i = 0; i < 5_000; i++) {
+                int origem = aleatorio.nextInt(20), destino = aleatorio.nextInt(20);
+                BigDecimal valor = BigDecimal.valueOf(aleatorio.nextInt(5_000) + 1, 2);
+                if (i % 2 == 0)
+                    respostas.add(contasParticionadas.transferir("op-" + i, "1300", "13000-" + origem,
+                            "1300", "13000-" + destino, valor));
+                else
+                    respostas.add(contasParticionadas.transferir("op-" + i, "1300", "13000-" + origem,
+                            "titular" + destino + "@particoes.com", valor));
+            }
+            respostas.forEach(CompletableFuture::join);
+            assertEquals(BigDecimal.ZERO, contasParticionadas.valorEmTransito());
+        }
+
+        long concluidas = respostas.stream().filter(resposta -> resposta.join().isConcluida()).count();
+        assertTrue(concluidas > 0);
+        BigDecimal total = contas.stream().map(ContaCorrente::getSaldo).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, BigDecimal.valueOf(2_000).compareTo(total));
+        contas.forEach(contaCorrente -> assertTrue(contaCorrente.getSaldo().signum() >= 0));
+    }
+
+    @Test
+    void repetirTransferenciaComOMesmoIdentificador() throws InterruptedException {
+        ContaCorrente contaAna = new ContaCorrente.AccountBuilder("1300", "13100-1")
+                                                  .nomeTitular("Ana")
+                                                  .pix(new ArrayList<>())
+                                                  .build();
+        ContaCorrente contaBia = new ContaCorrente.AccountBuilder("1300", "13100-2")
+                                                  .nomeTitular("Bia")
+                                                  .pix(new ArrayList<>())
+                                                  .build();
+        try (ContasParticionadas contasParticionadas = new ContasParticionadas(8)) {
+            assertTrue(contasParticionadas.depositar("1300", "13100-1", BigDecimal.valueOf(50)).join().isConcluida());
+
+            RespostaDaOperacao primeira = contasParticionadas
+                    .transferir("pagamento-1", "1300", "13100-1", "1300", "13100-2", BigDecimal.valueOf(30)).join();
+            RespostaDaOperacao repetida = contasParticionadas
+                    .transferir("pagamento-1", "1300", "13100-1", "1300", "13100-2", BigDecimal.valueOf(30)).join();
+            assertTrue(primeira.isConcluida());
+            assertSame(primeira, repetida);
+            assertEquals(BigDecimal.valueOf(20), contaAna.getSaldo());
+            assertEquals(BigDecimal.valueOf(30), contaBia.getSaldo());
+
+            RespostaDaOperacao semSaldo = contasParticionadas
+                    .transferir("pagamento-2", "1300", "13100-1", "1300", "13100-2", BigDecimal.valueOf(30)).join();
+            assertEquals("Saldo insuficiente! Transferência não autorizada.", semSaldo.getMensagem());
+            assertEquals(RespostaDaOperacao.Situacao.RECUSADA, contasParticionadas
+                    .transferir("pagamento-3", "1300", "13100-1", "1300", "99999-9", BigDecimal.ONE).join().getSituacao());
+            assertEquals(BigDecimal.valueOf(20), contaAna.getSaldo());
+            LocalDateTime de = LocalDateTime.now().minusMinutes(1L), ate = LocalDateTime.now().plusMinutes(1L);
+            assertEquals(2, contaAna.consultarExtrato(de, ate).size()); // Depósito e uma única transferência
+            assertEquals(1, contaBia.consultarExtrato(de, ate).size());
+        }
+    }
+
+    @Test
+    void mesmoIdentificadorEmOrigensDeParticoesDiferentes() throws InterruptedException {
+        List<ContaCorrente> contas = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            ContaCorrente contaCorrente = new ContaCorrente.AccountBuilder("1300", "13200-" + i)
+                                                           .nomeTitular("Titular " + i)
+                                                           .pix(new ArrayList<>())
+                                                           .build();
+            contaCorrente.depositar(BigDecimal.valueOf(100));
+            contas.add(contaCorrente);
+        }
+        try (ContasParticionadas contasParticionadas = new ContasParticionadas(2)) {
+            // Duas origens em partições diferentes, com o mesmo identificador, para o mesmo destinatário
+            String destino = "13200-0";
+            String outraOrigem = null;
+            for (int i = 2; i < 8 && outraOrigem == null; i++)
+                if (contasParticionadas.particaoDa("1300", "13200-" + i) != contasParticionadas.particaoDa("1300", "13200-1"))
+                    outraOrigem = "13200-" + i;
+            assertNotNull(outraOrigem);
+
+            assertTrue(contasParticionadas.transferir("compartilhado", "1300", "13200-1", "1300", destino,
+                    BigDecimal.TEN).join().isConcluida());
+            assertTrue(contasParticionadas.transferir("compartilhado", "1300", outraOrigem, "1300", destino,
+                    BigDecimal.TEN).join().isConcluida());
+            assertEquals(BigDecimal.valueOf(120), contas.get(0).getSaldo());
+
+            // O mesmo identificador, da mesma origem, em outra transferência
+            RespostaDaOperacao outroValor = contasParticionadas
+                    .transferir("compartilhado", "1300", "13200-1", "1300", destino, BigDecimal.ONE).join();
+            assertEquals(RespostaDaOperacao.Situacao.RECUSADA, outroValor.getSituacao());
+            assertEquals(BigDecimal.valueOf(90), contas.get(1).getSaldo());
+        }
+        BigDecimal total = contas.stream().map(ContaCorrente::getSaldo).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, BigDecimal.valueOf(800).compareTo(total));
+    }
+}
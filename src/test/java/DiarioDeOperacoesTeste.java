@@ -0,0 +1,154 @@
+import org.example.AgendadorDeTransferencias;
+import org.example.ContaCorrente;
+import org.example.DiarioDeOperacoes;
+import org.example.InstrucaoDeTransferencia;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Recuperação do estado das contas a partir do snapshot e do diário de operações
+public class DiarioDeOperacoesTeste {
+
+    @TempDir
+    Path diretorio;
+
+    @AfterEach
+    void restaurarAgendador() {
+        ContaCorrente.usarAgendador(null);
+    }
+
+    // Cada reabertura usa um agendador novo e parado: os agendamentos recuperados apenas ficam pendentes
+    private DiarioDeOperacoes reabrir() throws IOException {
+        ContaCorrente.usarAgendador(new AgendadorDeTransferencias(Clock.systemDefaultZone()));
+        return DiarioDeOperacoes.abrir(diretorio);
+    }
+
+    private static ContaCorrente conta(String conta) {
+        return ContaCorrente.buscarConta("6000", conta).orElseThrow();
+    }
+
+    private static void criarContas() throws CloneNotSupportedException {
+        ContaCorrente contaAna = new ContaCorrente.AccountBuilder("6000", "60000-1")
+                                                  .nomeTitular("Ana")
+                                                  .pix(new ArrayList<>(List.of("ana.diario@email.com")))
+                                                  .build();
+        new ContaCorrente.AccountBuilder("6000", "60000-2")
+                         .nomeTitular("Bia")
+                         .pix(new ArrayList<>())
+                         .extratoCompacto()
+                         .build();
+        contaAna.depositar(BigDecimal.valueOf(100));
+        contaAna.sacar(BigDecimal.valueOf(10));
+        contaAna.transferir("6000", "60000-2", BigDecimal.valueOf(25.5));
+        contaAna.transferir(LocalDateTime.now().plusDays(2), "6000", "60000-2", BigDecimal.valueOf(20));
+        contaAna.transferir(LocalDateTime.now().plusDays(3), "6000", "60000-2", BigDecimal.valueOf(5));
+        conta("60000-2").adicionarPix("bia.diario@email.com");
+    }
+
+    private static void verificarContas() {
+        verificarContas(5, 1);
+    }
+
+    private static void verificarContas(int lancamentosDaAna, int lancamentosDaBia) {
+        ContaCorrente contaAna = conta("60000-1"), contaBia = conta("60000-2");
+        LocalDateTime agora = LocalDateTime.now();
+        assertEquals(BigDecimal.valueOf(64.5), contaAna.getSaldo());
+        assertEquals(BigDecimal.valueOf(25.5), contaBia.getSaldo());
+        assertEquals(lancamentosDaAna, contaAna.consultarExtrato(agora.minusDays(1), agora.plusDays(5)).size());
+        assertEquals(lancamentosDaBia, contaBia.consultarExtrato(agora.minusDays(1), agora.plusDays(5)).size());
+        assertEquals(List.of("bia.diario@email.com"), contaBia.getPix());
+        assertEquals(List.of("ana.diario@email.com"), contaAna.getPix());
+    }
+
+    @Test
+    void recuperarOperacoesPeloDiario() throws IOException, CloneNotSupportedException {
+        try (DiarioDeOperacoes diario = reabrir()) {
+            criarContas();
+            assertTrue(conta("60000-1").cancelarAgendamento(conta("60000-1").listarAgendamentos().get(1).getId()));
+        }
+
+        try (DiarioDeOperacoes diario = reabrir()) {
+            verificarContas(4, 1); // O agendamento cancelado sai do extrato
+            assertEquals(1, conta("60000-1").listarAgendamentos().size());
+            assertEquals(BigDecimal.valueOf(20), conta("60000-1").listarAgendamentos().get(0).getValor());
+        }
+    }
+
+    @Test
+    void recusarSegundoDiarioSemDeixarGravadorAberto() throws IOException {
+        try (DiarioDeOperacoes diario = reabrir()) {
+            assertThrows(IllegalStateException.class, () -> DiarioDeOperacoes.abrir(diretorio.resolve("outro")));
+            assertEquals(1L, Thread.getAllStackTraces().keySet().stream()
+                                   .filter(thread -> thread.getName().equals("diario-de-operacoes")).count());
+        }
+    }
+
+    @Test
+    void recuperarSnapshotMaisDiario() throws IOException, CloneNotSupportedException {
+        try (DiarioDeOperacoes diario = reabrir()) {
+            criarContas();
+            diario.gravarSnapshot();
+            conta("60000-2").depositar(BigDecimal.valueOf(4.5));
+        }
+        assertTrue(Files.exists(diretorio.resolve("snapshot.bin")));
+
+        try (DiarioDeOperacoes diario = reabrir()) {
+            assertEquals(BigDecimal.valueOf(30), conta("60000-2").getSaldo());
+            assertEquals(2, conta("60000-1").listarAgendamentos().size());
+            conta("60000-2").sacar(BigDecimal.valueOf(4.5));
+        }
+
+        try (DiarioDeOperacoes diario = reabrir()) {
+            verificarContas(5, 3); // Recebimento, depósito e saque
+        }
+    }
+
+    @Test
+    void recuperarLiquidacaoEmLote() throws IOException, CloneNotSupportedException {
+        try (DiarioDeOperacoes diario = reabrir()) {
+            criarContas();
+            conta("60000-1").transferirEmLote(List.of(
+                    InstrucaoDeTransferencia.pix("bia.diario@email.com", BigDecimal.valueOf(4.5)),
+                    InstrucaoDeTransferencia.conta("6000", "60000-2", BigDecimal.valueOf(10))));
+        }
+
+        try (DiarioDeOperacoes diario = reabrir()) {
+            assertEquals(BigDecimal.valueOf(50), conta("60000-1").getSaldo());
+            assertEquals(BigDecimal.valueOf(40), conta("60000-2").getSaldo());
+        }
+    }
+
+    @Test
+    void descartarRegistroIncompletoNoFimDoDiario() throws IOException, CloneNotSupportedException {
+        try (DiarioDeOperacoes diario = reabrir()) {
+            criarContas();
+        }
+        // Simula uma queda no meio da gravação: cabeçalho de registro sem o conteúdo
+        Path arquivo = diretorio.resolve("diario-0.bin");
+        Files.write(arquivo, new byte[]{0, 0, 0, 40, 1, 2, 3, 4, 3}, StandardOpenOption.APPEND);
+        long tamanhoComLixo = Files.size(arquivo);
+
+        try (DiarioDeOperacoes diario = reabrir()) {
+            verificarContas();
+            assertTrue(Files.size(arquivo) < tamanhoComLixo);
+            conta("60000-1").depositar(BigDecimal.ONE);
+        }
+
+        try (DiarioDeOperacoes diario = reabrir()) {
+            assertEquals(BigDecimal.valueOf(65.5), conta("60000-1").getSaldo());
+        }
+    }
+}
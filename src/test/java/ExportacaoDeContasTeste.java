@@ -0,0 +1,99 @@
+import org.example.ContaCorrente;
+import org.example.TipoTransacao;
+import org.example.Transacao;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExportacaoDeContasTeste {
+
+    @Test
+    void exportarEImportarContas() throws IOException, CloneNotSupportedException {
+        ContaCorrente contaAna = new ContaCorrente.AccountBuilder("1500", "15000-1")
+                                                  .nomeTitular("Ana")
+                                                  .pix(new ArrayList<>(List.of("ana@exportacao.com")))
+                                                  .build();
+        ContaCorrente contaBia = new ContaCorrente.AccountBuilder("1500", "15000-2")
+                                                  .nomeTitular("Bia")
+                                                  .pix(new ArrayList<>(List.of("bia@exportacao.com")))
+                                                  .extratoCompacto()
+                                                  .build();
+        contaAna.depositar(BigDecimal.valueOf(300));
+        contaAna.transferir("bia@exportacao.com", new BigDecimal("120.35"));
+        contaBia.sacar(BigDecimal.valueOf(20));
+        contaBia.transferir("1500", "15000-1", BigDecimal.TEN);
+        LocalDateTime de = LocalDateTime.now().minusMinutes(1L), ate = LocalDateTime.now().plusMinutes(1L);
+        List<String> extratoDaAna = descricoes(contaAna.consultarExtrato(de, ate));
+        List<String> extratoDaBia = descricoes(contaBia.consultarExtrato(de, ate));
+
+        Path arquivo = Files.createTempFile("contas", ".bin");
+        try {
+            ContaCorrente.exportarContas(arquivo);
+            assertTrue(ContaCorrente.importarContas(arquivo) >= 2);
+        } finally {
+            Files.deleteIfExists(arquivo);
+        }
+
+        ContaCorrente anaImportada = ContaCorrente.buscarConta("1500", "15000-1").orElseThrow();
+        ContaCorrente biaImportada = ContaCorrente.buscarConta("1500", "15000-2").orElseThrow();
+        assertNotSame(contaAna, anaImportada);
+        assertEquals(new BigDecimal("189.65"), anaImportada.getSaldo());
+        assertEquals(new BigDecimal("90.35"), biaImportada.getSaldo());
+        assertEquals(extratoDaAna, descricoes(anaImportada.consultarExtrato(de, ate)));
+        assertEquals(extratoDaBia, descricoes(biaImportada.consultarExtrato(de, ate)));
+        assertEquals(BigDecimal.valueOf(20), biaImportada.resumirExtrato(LocalDate.now(), LocalDate.now().plusDays(1L))
+                                                        .getSaidas(TipoTransacao.SAQUE));
+
+        // As chaves pix passam para as contas importadas
+        anaImportada.transferir("bia@exportacao.com", BigDecimal.ONE);
+        assertEquals(new BigDecimal("91.35"), biaImportada.getSaldo());
+        assertEquals(new BigDecimal("90.35"), contaBia.getSaldo());
+    }
+
+    @Test
+    void exportarComLancamentosEmAndamento() throws IOException, InterruptedException {
+        ContaCorrente contaCris = new ContaCorrente.AccountBuilder("1500", "15100-1")
+                                                   .nomeTitular("Cris")
+                                                   .pix(new ArrayList<>())
+                                                   .extratoCompacto()
+                                                   .build();
+        LocalDateTime de = LocalDateTime.now().minusMinutes(1L);
+        AtomicBoolean exportando = new AtomicBoolean(true);
+        Thread depositos = new Thread(() -> {
+            while (exportando.get()) contaCris.depositar(BigDecimal.ONE);
+        });
+        depositos.start();
+        Path arquivo = Files.createTempFile("contas", ".bin");
+        try {
+            for (int exportacao = 0; exportacao < 20; exportacao++) ContaCorrente.exportarContas(arquivo);
+            exportando.set(false);
+            depositos.join();
+            ContaCorrente.importarContas(arquivo);
+        } finally {
+            exportando.set(false);
+            Files.deleteIfExists(arquivo);
+        }
+
+        // Saldo e extrato gravados no mesmo instante: um real por depósito
+        ContaCorrente crisImportada = ContaCorrente.buscarConta("1500", "15100-1").orElseThrow();
+        int depositosGravados = crisImportada.consultarExtrato(de, LocalDateTime.now().plusMinutes(1L)).size();
+        assertEquals(BigDecimal.valueOf(depositosGravados), crisImportada.getSaldo());
+    }
+
+    private static List<String> descricoes(List<Transacao> transacoes) {
+        List<String> descricoes = new ArrayList<>();
+        for (Transacao transacao : transacoes) descricoes.add(transacao.formatarParaExtrato());
+        return descricoes;
+    }
+}
@@ -0,0 +1,96 @@
+import org.example.ContaCorrente;
+import org.example.PedidoDeOperacao;
+import org.example.RespostaDaOperacao;
+import org.example.ServidorDeOperacoes;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Carga no ServidorDeOperacoes: `clientes` pedidos em andamento ao mesmo tempo (cada cliente envia o próximo pedido
+// quando recebe a resposta), misturando depósitos, saques, pix, transferências e extratos entre `contas` contas.
+// Mede pedidos por segundo e as latências (do envio à resposta) dos pedidos concluídos.
+// Uso: java -cp target/classes:target/test-classes GeradorDeCarga [pedidos] [clientes] [concorrencia] [capacidade] [contas]
+public class GeradorDeCarga {
+
+    public static void main(String[] args) throws Exception {
+        int quantidadeDePedidos = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int quantidadeDeClientes = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int concorrencia = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        int capacidade = args.length > 3 ? Integer.parseInt(args[3]) : 20_000;
+        int quantidadeDeContas = args.length > 4 ? Integer.parseInt(args[4]) : 1_000;
+
+        List<ContaCorrente> contas = new ArrayList<>();
+        for (int i = 0; i < quantidadeDeContas; i++) {
+            ContaCorrente contaCorrente = new ContaCorrente.AccountBuilder("1200", "12000-" + i)
+                                                           .nomeTitular("Cliente " + i)
+                                                           .pix(new ArrayList<>(List.of("cliente" + i + "@carga.com")))
+                                                           .extratoCompacto()
+                                                           .build();
+            contaCorrente.depositar(BigDecimal.valueOf(1_000_000));
+            contas.add(contaCorrente);
+        }
+
+        long[] latencias = new long[quantidadeDePedidos];
+        AtomicLong concluidos = new AtomicLong();
+        Map<RespostaDaOperacao.Situacao, AtomicLong> porSituacao = new EnumMap<>(RespostaDaOperacao.Situacao.class);
+        for (RespostaDaOperacao.Situacao situacao : RespostaDaOperacao.Situacao.values())
+            porSituacao.put(situacao, new AtomicLong());
+        Semaphore clientes = new Semaphore(quantidadeDeClientes);
+        SplittableRandom aleatorio = new SplittableRandom(42L);
+
+        long inicio;
+        try (ServidorDeOperacoes servidor = new ServidorDeOperacoes(concorrencia, capacidade, Duration.ofSeconds(1L))) {
+            inicio = System.nanoTime();
+            for (int i = 0; i < quantidadeDePedidos; i++) {
+                clientes.acquire();
+                PedidoDeOperacao pedido = sortearPedido(aleatorio, quantidadeDeContas);
+                long envio = System.nanoTime();
+                servidor.enviar(pedido).whenComplete((resposta, falha) -> {
+                    if (resposta != null) {
+                        porSituacao.get(resposta.getSituacao()).incrementAndGet();
+                        if (resposta.isConcluida())
+                            latencias[(int) concluidos.getAndIncrement()] = System.nanoTime() - envio;
+                    }
+                    clientes.release();
+                });
+            }
+            clientes.acquire(quantidadeDeClientes);
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        int quantidadeConcluida = (int) concluidos.get();
+        long[] concluidas = Arrays.copyOf(latencias, quantidadeConcluida);
+        Arrays.sort(concluidas);
+        System.out.printf("%,d pedidos, %,d clientes, concorrência %d: %.1f s (%,.0f pedidos/s)%n",
+                quantidadeDePedidos, quantidadeDeClientes, concorrencia, segundos, quantidadeDePedidos / segundos);
+        System.out.printf("Situações: %s%n", porSituacao);
+        if (quantidadeConcluida > 0)
+            System.out.printf("Latência (µs): p50 %,d, p99 %,d, p99.9 %,d, máxima %,d%n",
+                    percentil(concluidas, 0.50), percentil(concluidas, 0.99), percentil(concluidas, 0.999),
+                    concluidas[quantidadeConcluida - 1] / 1_000);
+    }
+
+    private static PedidoDeOperacao sortearPedido(SplittableRandom aleatorio, int quantidadeDeContas) {
+        int origem = aleatorio.nextInt(quantidadeDeContas);
+        int destino = (origem + 1 + aleatorio.nextInt(quantidadeDeContas - 1)) % quantidadeDeContas;
+        BigDecimal valor = BigDecimal.valueOf(aleatorio.nextInt(1, 10_000), 2);
+        int sorteio = aleatorio.nextInt(100);
+        if (sorteio < 40) return PedidoDeOperacao.deposito("1200", "12000-" + origem, valor);
+        if (sorteio < 60) return PedidoDeOperacao.saque("1200", "12000-" + origem, valor);
+        if (sorteio < 85) return PedidoDeOperacao.pix("1200", "12000-" + origem, "cliente" + destino + "@carga.com", valor);
+        if (sorteio < 95) return PedidoDeOperacao.transferencia("1200", "12000-" + origem, "1200", "12000-" + destino, valor);
+        return PedidoDeOperacao.extrato("1200", "12000-" + origem, 20);
+    }
+
+    private static long percentil(long[] ordenadas, double percentil) {
+        return ordenadas[(int) Math.min(ordenadas.length - 1, Math.ceil(percentil * ordenadas.length) - 1)] / 1_000;
+    }
+}
@@ -0,0 +1,117 @@
+import org.example.ContaCorrente;
+import org.example.RespostaDaOperacao;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotenciaTeste {
+
+    public ContaCorrente contaAna = new ContaCorrente.AccountBuilder("1600", "16000-1")
+                                                     .nomeTitular("Ana")
+                                                     .pix(new ArrayList<>(List.of("ana@idempotencia.com")))
+                                                     .build();
+
+    public ContaCorrente contaBia = new ContaCorrente.AccountBuilder("1600", "16000-2")
+                                                     .nomeTitular("Bia")
+                                                     .pix(new ArrayList<>(List.of("bia@idempotencia.com")))
+                                                     .build();
+
+    @Test
+    void repetirPedidoDevolveARespostaOriginal() throws CloneNotSupportedException {
+        RespostaDaOperacao deposito = contaAna.depositarIdempotente("deposito-1", BigDecimal.valueOf(100));
+        assertSame(deposito, contaAna.depositarIdempotente("deposito-1", new BigDecimal("100.00")));
+        assertEquals(BigDecimal.valueOf(100), contaAna.getSaldo());
+
+        RespostaDaOperacao pix = contaAna.transferirIdempotente("pix-1", "bia@idempotencia.com", BigDecimal.TEN);
+        RespostaDaOperacao repetido = contaAna.transferirIdempotente("pix-1", "bia@idempotencia.com", BigDecimal.TEN);
+        assertTrue(repetido.isConcluida());
+        assertEquals(BigDecimal.valueOf(90), repetido.getSaldo());
+        assertSame(pix, repetido);
+        contaAna.transferirIdempotente("ted-1", "1600", "16000-2", BigDecimal.ONE);
+        contaAna.transferirIdempotente("ted-1", "1600", "16000-2", BigDecimal.ONE);
+        assertEquals(BigDecimal.valueOf(89), contaAna.getSaldo());
+        assertEquals(BigDecimal.valueOf(11), contaBia.getSaldo());
+
+        // A mesma chave vale apenas para a mesma operação; em outra conta, é outro pedido
+        assertThrows(IllegalArgumentException.class,
+                () -> contaAna.transferirIdempotente("pix-1", "bia@idempotencia.com", BigDecimal.ONE));
+        contaBia.depositarIdempotente("deposito-1", BigDecimal.ONE);
+        assertEquals(BigDecimal.valueOf(12), contaBia.getSaldo());
+    }
+
+    @Test
+    void recusaTambemERepetida() throws CloneNotSupportedException {
+        RespostaDaOperacao recusada = contaBia.transferirIdempotente("sem-saldo", "ana@idempotencia.com", BigDecimal.TEN);
+        assertEquals(RespostaDaOperacao.Situacao.RECUSADA, recusada.getSituacao());
+        contaBia.depositar(BigDecimal.valueOf(50));
+        assertSame(recusada, contaBia.transferirIdempotente("sem-saldo", "ana@idempotencia.com", BigDecimal.TEN));
+        assertEquals(BigDecimal.valueOf(50), contaBia.getSaldo());
+    }
+
+    @Test
+    void repeticoesSimultaneasExecutamUmaVez() throws Exception {
+        contaAna.depositar(BigDecimal.valueOf(1_000));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<RespostaDaOperacao>> respostas = new ArrayList<>();
+        try {
+            for (int tentativa = 0; tentativa < 8; tentativa++) {
+                respostas.add(executor.submit(() -> {
+                    largada.await();
+                    return contaAna.transferirIdempotente("pix-simultaneo", "bia@idempotencia.com", BigDecimal.valueOf(5));
+                }));
+            }
+            largada.countDown();
+            for (Future<RespostaDaOperacao> resposta : respostas) assertTrue(resposta.get().isConcluida());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(BigDecimal.valueOf(995), contaAna.getSaldo());
+    }
+
+    @Test
+    void cadastroSubstituidoMantemAsRespostas() {
+        ContaCorrente original = new ContaCorrente.AccountBuilder("1600", "16000-3")
+                                                  .nomeTitular("Caio")
+                                                  .pix(new ArrayList<>())
+                                                  .build();
+        RespostaDaOperacao deposito = original.depositarIdempotente("deposito-recadastro", BigDecimal.TEN);
+
+        // Mesma agência e conta: a repetição do pedido não deposita de novo
+        ContaCorrente recadastrada = new ContaCorrente.AccountBuilder("1600", "16000-3")
+                                                      .nomeTitular("Caio")
+                                                      .pix(new ArrayList<>())
+                                                      .build();
+        assertSame(deposito, recadastrada.depositarIdempotente("deposito-recadastro", BigDecimal.TEN));
+        assertEquals(BigDecimal.ZERO, recadastrada.getSaldo());
+    }
+
+    @Test
+    void chavesAntigasSaoDescartadas() throws InterruptedException {
+        ContaCorrente.usarCacheDeIdempotencia(2, Duration.ofHours(1L));
+        contaAna.depositarIdempotente("a", BigDecimal.ONE);
+        contaAna.depositarIdempotente("b", BigDecimal.ONE);
+        contaAna.depositarIdempotente("c", BigDecimal.ONE); // Descarta "a", a mais antiga
+        contaAna.depositarIdempotente("a", BigDecimal.ONE);
+        assertEquals(BigDecimal.valueOf(4), contaAna.getSaldo());
+
+        ContaCorrente.usarCacheDeIdempotencia(100, Duration.ofMillis(50L));
+        contaAna.depositarIdempotente("d", BigDecimal.ONE);
+        Thread.sleep(100L);
+        contaAna.depositarIdempotente("d", BigDecimal.ONE); // Vencida
+        assertEquals(BigDecimal.valueOf(6), contaAna.getSaldo());
+
+        assertThrows(IllegalArgumentException.class, () -> ContaCorrente.usarCacheDeIdempotencia(0, Duration.ofHours(1L)));
+        ContaCorrente.usarCacheDeIdempotencia(1 << 20, Duration.ofHours(1L));
+    }
+}
@@ -0,0 +1,87 @@
+import org.example.ContaCorrente;
+import org.example.InstrucaoDeTransferencia;
+import org.example.ResultadoDaLiquidacao;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LiquidacaoEmLoteTeste {
+
+    public ContaCorrente contaEmpresa = new ContaCorrente.AccountBuilder("4000", "40000-1")
+                                                         .nomeTitular("Empresa")
+                                                         .pix(new ArrayList<>(List.of("empresa@lote.com")))
+                                                         .build();
+
+    public ContaCorrente contaAna = new ContaCorrente.AccountBuilder("4000", "40000-2")
+                                                     .nomeTitular("Ana")
+                                                     .pix(new ArrayList<>(List.of("ana@lote.com")))
+                                                     .build();
+
+    public ContaCorrente contaBia = new ContaCorrente.AccountBuilder("4000", "40000-3")
+                                                     .nomeTitular("Bia")
+                                                     .pix(new ArrayList<>())
+                                                     .build();
+
+    @Test
+    void liquidarLoteComRecusasIndividuais() {
+        contaEmpresa.depositar(BigDecimal.valueOf(1000));
+
+        ResultadoDaLiquidacao resultado = contaEmpresa.transferirEmLote(List.of(
+                InstrucaoDeTransferencia.pix("ana@lote.com", BigDecimal.valueOf(300)),
+                InstrucaoDeTransferencia.conta("4000", "40000-3", BigDecimal.valueOf(200)),
+                InstrucaoDeTransferencia.pix("ana@lote.com", BigDecimal.valueOf(50)),
+                InstrucaoDeTransferencia.pix("ninguem@lote.com", BigDecimal.valueOf(10)), // Errado: chave inexistente
+                InstrucaoDeTransferencia.pix("empresa@lote.com", BigDecimal.valueOf(10)), // Errado: a própria conta
+                InstrucaoDeTransferencia.conta("4000", "40000-3", BigDecimal.valueOf(-5)))); // Errado: valor negativo
+
+        assertEquals(3, resultado.getQuantidadeLiquidada());
+        assertEquals(BigDecimal.valueOf(550), resultado.getTotalLiquidado());
+        assertEquals(6, resultado.getItens().size());
+        assertEquals(3, resultado.recusados().size());
+        assertEquals(ResultadoDaLiquidacao.Situacao.RECUSADA, resultado.getItens().get(3).getSituacao());
+        assertEquals(BigDecimal.valueOf(450), contaEmpresa.getSaldo());
+        assertEquals(BigDecimal.valueOf(350), contaAna.getSaldo());
+        assertEquals(BigDecimal.valueOf(200), contaBia.getSaldo());
+    }
+
+    @Test
+    void recusarLoteInteiroSemSaldoParaOTotal() {
+        contaEmpresa.depositar(BigDecimal.valueOf(100));
+
+        assertThrows(IllegalArgumentException.class, () -> contaEmpresa.transferirEmLote(List.of(
+                InstrucaoDeTransferencia.pix("ana@lote.com", BigDecimal.valueOf(60)),
+                InstrucaoDeTransferencia.conta("4000", "40000-3", BigDecimal.valueOf(60)))));
+        assertEquals(BigDecimal.valueOf(100), contaEmpresa.getSaldo());
+        assertEquals(BigDecimal.ZERO, contaAna.getSaldo());
+        assertEquals(BigDecimal.ZERO, contaBia.getSaldo());
+    }
+
+    @Test
+    void chavePixComFormaDeAgenciaEContaNaoSeConfundeComAConta() {
+        contaEmpresa.depositar(BigDecimal.valueOf(100));
+        contaAna.adicionarPix("4000/40000-3");
+
+        contaEmpresa.transferirEmLote(List.of(
+                InstrucaoDeTransferencia.pix("4000/40000-3", BigDecimal.valueOf(30)),
+                InstrucaoDeTransferencia.conta("4000", "40000-3", BigDecimal.valueOf(20))));
+        assertEquals(BigDecimal.valueOf(30), contaAna.getSaldo());
+        assertEquals(BigDecimal.valueOf(20), contaBia.getSaldo());
+    }
+
+    @Test
+    void recusarLoteQueEstouraOSaldoDeUmDestinatario() {
+        contaEmpresa.depositar(BigDecimal.valueOf(100));
+        contaBia.depositar(new BigDecimal(Long.MAX_VALUE).movePointLeft(2)); // Saldo no limite
+
+        assertThrows(IllegalArgumentException.class, () -> contaEmpresa.transferirEmLote(List.of(
+                InstrucaoDeTransferencia.pix("ana@lote.com", BigDecimal.valueOf(10)),
+                InstrucaoDeTransferencia.conta("4000", "40000-3", BigDecimal.ONE))));
+        assertEquals(BigDecimal.valueOf(100), contaEmpresa.getSaldo());
+        assertEquals(BigDecimal.ZERO, contaAna.getSaldo());
+    }
+}
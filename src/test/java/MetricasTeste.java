@@ -0,0 +1,122 @@
+import org.example.ContaCorrente;
+import org.example.FotografiaDasMetricas;
+import org.example.InstrucaoDeTransferencia;
+import org.example.MetricasEmMemoria;
+import org.example.MotivoDaRecusa;
+import org.example.TipoTransacao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricasTeste {
+
+    public ContaCorrente contaAna = new ContaCorrente.AccountBuilder("2000", "20000-1")
+                                                     .nomeTitular("Ana")
+                                                     .pix(new ArrayList<>(List.of("ana@metricas.com")))
+                                                     .build();
+
+    public ContaCorrente contaBia = new ContaCorrente.AccountBuilder("2000", "20000-2")
+                                                     .nomeTitular("Bia")
+                                                     .pix(new ArrayList<>(List.of("bia@metricas.com")))
+                                                     .build();
+
+    public MetricasEmMemoria metricas = new MetricasEmMemoria(true);
+
+    @BeforeEach
+    void instalarMetricas() {
+        ContaCorrente.usarMetricas(metricas);
+    }
+
+    @AfterEach
+    void restaurarMetricas() {
+        ContaCorrente.usarMetricas(null);
+    }
+
+    @Test
+    void contarTransacoesEVolume() throws CloneNotSupportedException {
+        contaAna.depositar(BigDecimal.valueOf(100));
+        contaAna.depositar(new BigDecimal("0.50"));
+        contaAna.sacar(BigDecimal.valueOf(20));
+        contaAna.transferir("bia@metricas.com", BigDecimal.valueOf(30));
+        contaAna.transferir("2000", "20000-2", BigDecimal.valueOf(10));
+
+        FotografiaDasMetricas fotografia = metricas.fotografar();
+        assertEquals(2, fotografia.get(TipoTransacao.DEPOSITO).getQuantidade());
+        assertEquals(new BigDecimal("100.5"), fotografia.get(TipoTransacao.DEPOSITO).getVolume());
+        assertEquals(1, fotografia.get(TipoTransacao.SAQUE).getQuantidade());
+        assertEquals(1, fotografia.get(TipoTransacao.PIX).getQuantidade());
+        assertEquals(BigDecimal.valueOf(10), fotografia.get(TipoTransacao.TRANSFERENCIA).getVolume());
+        assertEquals(2, fotografia.get(TipoTransacao.DEPOSITO).getLatencias());
+
+        FotografiaDasMetricas daBia = metricas.fotografar(contaBia);
+        assertEquals(0, daBia.get(TipoTransacao.PIX).getQuantidade());
+        assertEquals(1, metricas.fotografar(contaAna).get(TipoTransacao.PIX).getQuantidade());
+    }
+
+    @Test
+    void contarRecusasPorMotivo() {
+        contaAna.depositar(BigDecimal.valueOf(10));
+
+        assertThrows(IllegalArgumentException.class, () -> contaAna.sacar(BigDecimal.valueOf(50)));
+        assertThrows(IllegalArgumentException.class, () -> contaAna.depositar(BigDecimal.valueOf(-1)));
+        assertThrows(IllegalArgumentException.class, () -> contaAna.transferir("ninguem@metricas.com", BigDecimal.ONE));
+        assertThrows(IllegalArgumentException.class, () -> contaAna.transferir("2000", "20000-9", BigDecimal.ONE));
+        assertThrows(IllegalArgumentException.class,
+                () -> contaAna.transferir(LocalDateTime.now().minusDays(1L), "bia@metricas.com", BigDecimal.ONE));
+
+        FotografiaDasMetricas fotografia = metricas.fotografar();
+        assertEquals(1L, fotografia.get(TipoTransacao.SAQUE).getRecusas().get(MotivoDaRecusa.SALDO_INSUFICIENTE));
+        assertEquals(1L, fotografia.get(TipoTransacao.DEPOSITO).getRecusas().get(MotivoDaRecusa.VALOR_INVALIDO));
+        assertEquals(1L, fotografia.get(TipoTransacao.PIX).getRecusas().get(MotivoDaRecusa.PIX_INVALIDO));
+        assertEquals(1L, fotografia.get(TipoTransacao.PIX).getRecusas().get(MotivoDaRecusa.DATA_INVALIDA));
+        assertEquals(1L, fotografia.get(TipoTransacao.TRANSFERENCIA).getRecusas().get(MotivoDaRecusa.CONTA_INVALIDA));
+        assertEquals(0, fotografia.get(TipoTransacao.SAQUE).getQuantidade());
+    }
+
+    @Test
+    void contarRecusaDoLoteSemSaldo() {
+        contaAna.depositar(BigDecimal.valueOf(10));
+
+        assertThrows(IllegalArgumentException.class, () -> contaAna.transferirEmLote(List.of(
+                InstrucaoDeTransferencia.pix("bia@metricas.com", BigDecimal.valueOf(8)),
+                InstrucaoDeTransferencia.conta("2000", "20000-2", BigDecimal.valueOf(8)))));
+
+        FotografiaDasMetricas fotografia = metricas.fotografar();
+        assertEquals(1L, fotografia.get(TipoTransacao.PIX).getRecusas().get(MotivoDaRecusa.SALDO_INSUFICIENTE));
+        assertEquals(1L, fotografia.get(TipoTransacao.TRANSFERENCIA).getRecusas().get(MotivoDaRecusa.SALDO_INSUFICIENTE));
+        assertEquals(0, fotografia.get(TipoTransacao.PIX).getQuantidade());
+    }
+
+    @Test
+    void calcularPercentisDeLatencia() {
+        for (long nanos = 1; nanos <= 10_000; nanos++) metricas.latencia(TipoTransacao.PIX, nanos);
+
+        FotografiaDasMetricas.MetricasDoTipo pix = metricas.fotografar().get(TipoTransacao.PIX);
+        assertEquals(10_000, pix.getLatencias());
+        assertEquals(5_000, pix.getLatenciaP50(), 5_000 * 0.07);
+        assertEquals(9_900, pix.getLatenciaP99(), 9_900 * 0.07);
+        assertEquals(10_000, pix.getLatenciaMaxima());
+    }
+
+    @Test
+    void exportarNoFormatoTexto() throws IOException {
+        contaAna.depositar(BigDecimal.valueOf(25));
+        assertThrows(IllegalArgumentException.class, () -> contaAna.sacar(BigDecimal.valueOf(50)));
+
+        StringBuilder texto = new StringBuilder();
+        metricas.fotografar().exportar(texto);
+        assertTrue(texto.toString().contains("conta_corrente_transacoes_total{tipo=\"deposito\"} 1\n"));
+        assertTrue(texto.toString().contains("conta_corrente_volume_total{tipo=\"deposito\"} 25\n"));
+        assertTrue(texto.toString().contains(
+                "conta_corrente_recusas_total{tipo=\"saque\",motivo=\"saldo_insuficiente\"} 1\n"));
+    }
+}
@@ -0,0 +1,71 @@
+import org.example.ContaCorrente;
+import org.example.ResumoDoPeriodo;
+import org.example.TipoTransacao;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResumoDoExtratoTeste {
+
+    public ContaCorrente contaAna = new ContaCorrente.AccountBuilder("1400", "14000-1")
+                                                     .nomeTitular("Ana")
+                                                     .pix(new ArrayList<>(List.of("ana@resumo.com")))
+                                                     .build();
+
+    public ContaCorrente contaBia = new ContaCorrente.AccountBuilder("1400", "14000-2")
+                                                     .nomeTitular("Bia")
+                                                     .pix(new ArrayList<>(List.of("bia@resumo.com")))
+                                                     .extratoCompacto()
+                                                     .build();
+
+    @Test
+    void resumirMovimentacaoDoPeriodo() throws CloneNotSupportedException {
+        contaAna.depositar(BigDecimal.valueOf(500));
+        contaAna.depositar(new BigDecimal("0.75"));
+        contaAna.sacar(BigDecimal.valueOf(100));
+        contaAna.transferir("bia@resumo.com", BigDecimal.valueOf(50));
+        contaAna.transferir("1400", "14000-2", BigDecimal.valueOf(25));
+        contaBia.transferir("ana@resumo.com", BigDecimal.valueOf(5));
+        contaAna.transferir(LocalDateTime.now().plusDays(3L), "bia@resumo.com", BigDecimal.TEN); // Ainda não debitada
+
+        LocalDate hoje = LocalDate.now();
+        ResumoDoPeriodo resumo = contaAna.resumirExtrato(hoje.minusDays(60L), hoje.plusDays(60L));
+        assertEquals(BigDecimal.ZERO, resumo.getSaldoInicial());
+        assertEquals(contaAna.getSaldo(), resumo.getSaldoFinal());
+        assertEquals(2, resumo.getQuantidade(TipoTransacao.DEPOSITO));
+        assertEquals(new BigDecimal("500.75"), resumo.getEntradas(TipoTransacao.DEPOSITO));
+        assertEquals(BigDecimal.valueOf(100), resumo.getSaidas(TipoTransacao.SAQUE));
+        assertEquals(2, resumo.getQuantidade(TipoTransacao.PIX)); // Um enviado e um recebido
+        assertEquals(BigDecimal.valueOf(50), resumo.getSaidas(TipoTransacao.PIX));
+        assertEquals(BigDecimal.valueOf(5), resumo.getEntradas(TipoTransacao.PIX));
+        assertEquals(BigDecimal.valueOf(25), resumo.getSaidas(TipoTransacao.TRANSFERENCIA));
+
+        ResumoDoPeriodo daBia = contaBia.resumirExtrato(hoje, hoje.plusDays(1L));
+        assertEquals(contaBia.getSaldo(), daBia.getSaldoFinal());
+        assertEquals(BigDecimal.valueOf(70), daBia.getMovimentacaoLiquida());
+    }
+
+    @Test
+    void resumirPeriodosSemMovimentacao() {
+        contaAna.depositar(BigDecimal.valueOf(80));
+
+        LocalDate hoje = LocalDate.now();
+        ResumoDoPeriodo anterior = contaAna.resumirExtrato(hoje.minusYears(1L), hoje.minusDays(1L));
+        assertEquals(BigDecimal.ZERO, anterior.getSaldoFinal());
+        assertEquals(0, anterior.getQuantidade(TipoTransacao.DEPOSITO));
+
+        ResumoDoPeriodo posterior = contaAna.resumirExtrato(hoje.plusDays(1L), hoje.plusMonths(3L));
+        assertEquals(BigDecimal.valueOf(80), posterior.getSaldoInicial());
+        assertEquals(BigDecimal.valueOf(80), posterior.getSaldoFinal());
+        assertEquals(BigDecimal.ZERO, posterior.getMovimentacaoLiquida());
+
+        assertThrows(IllegalArgumentException.class, () -> contaAna.resumirExtrato(hoje, hoje.minusDays(1L)));
+    }
+}
@@ -0,0 +1,86 @@
+import org.example.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServidorDeOperacoesTeste {
+
+    public ContaCorrente contaAna = new ContaCorrente.AccountBuilder("1100", "11000-1")
+                                                     .nomeTitular("Ana")
+                                                     .pix(new ArrayList<>(List.of("ana@servidor.com")))
+                                                     .build();
+
+    public ContaCorrente contaBia = new ContaCorrente.AccountBuilder("1100", "11000-2")
+                                                     .nomeTitular("Bia")
+                                                     .pix(new ArrayList<>(List.of("bia@servidor.com")))
+                                                     .build();
+
+    @Test
+    void executarPedidosDosClientes() throws InterruptedException {
+        try (ServidorDeOperacoes servidor = new ServidorDeOperacoes(4, 16, Duration.ofSeconds(5L))) {
+            assertEquals(BigDecimal.valueOf(100),
+                    servidor.executar(PedidoDeOperacao.deposito("1100", "11000-1", BigDecimal.valueOf(100))).getSaldo());
+            assertTrue(servidor.executar(PedidoDeOperacao.saque("1100", "11000-1", BigDecimal.valueOf(10))).isConcluida());
+            assertTrue(servidor.executar(
+                    PedidoDeOperacao.pix("1100", "11000-1", "bia@servidor.com", BigDecimal.valueOf(30))).isConcluida());
+            RespostaDaOperacao transferencia = servidor.executar(
+                    PedidoDeOperacao.transferencia("1100", "11000-1", "1100", "11000-2", BigDecimal.valueOf(20)));
+            assertEquals(BigDecimal.valueOf(40), transferencia.getSaldo());
+            assertEquals(BigDecimal.valueOf(50), contaBia.getSaldo());
+
+            RespostaDaOperacao extrato = servidor.executar(PedidoDeOperacao.extrato("1100", "11000-1", 10));
+            assertEquals(2, extrato.getTransacoes().size()); // Saque e depósito; as transferências ficam datadas em +5s
+
+            RespostaDaOperacao semSaldo = servidor.executar(PedidoDeOperacao.saque("1100", "11000-1", BigDecimal.valueOf(500)));
+            assertEquals(RespostaDaOperacao.Situacao.RECUSADA, semSaldo.getSituacao());
+            assertEquals("Saldo insuficiente! Transferência não autorizada.", semSaldo.getMensagem());
+            assertEquals(RespostaDaOperacao.Situacao.RECUSADA,
+                    servidor.executar(PedidoDeOperacao.deposito("1100", "99999-9", BigDecimal.ONE)).getSituacao());
+            assertEquals(BigDecimal.valueOf(40), contaAna.getSaldo());
+        }
+    }
+
+    @Test
+    void recusarPedidosAlemDaCapacidadeEDoPrazo() throws Exception {
+        CountDownLatch depositoIniciado = new CountDownLatch(1), liberarDeposito = new CountDownLatch(1);
+        // Segura o primeiro depósito dentro da conta para ocupar a única vaga de execução
+        ContaCorrente.usarMetricas(new RegistradorDeMetricas() {
+            @Override
+            public void transacaoRegistrada(ContaCorrente contaCorrente, TipoTransacao tipo, long valorEmCentavos) {
+                if (contaCorrente != contaAna || depositoIniciado.getCount() == 0) return;
+                depositoIniciado.countDown();
+                try {
+                    liberarDeposito.await();
+                } catch (InterruptedException interrompido) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        try (ServidorDeOperacoes servidor = new ServidorDeOperacoes(1, 2, Duration.ofSeconds(5L))) {
+            CompletableFuture<RespostaDaOperacao> ocupando =
+                    servidor.enviar(PedidoDeOperacao.deposito("1100", "11000-1", BigDecimal.TEN));
+            depositoIniciado.await();
+
+            CompletableFuture<RespostaDaOperacao> esperando =
+                    servidor.enviar(PedidoDeOperacao.deposito("1100", "11000-2", BigDecimal.ONE), Duration.ofMillis(50L));
+            assertEquals(RespostaDaOperacao.Situacao.SOBRECARGA,
+                    servidor.executar(PedidoDeOperacao.deposito("1100", "11000-2", BigDecimal.ONE)).getSituacao());
+            assertEquals(RespostaDaOperacao.Situacao.EXPIRADA, esperando.join().getSituacao());
+
+            liberarDeposito.countDown();
+            assertTrue(ocupando.join().isConcluida());
+            assertEquals(BigDecimal.TEN, contaAna.getSaldo());
+            assertEquals(BigDecimal.ZERO, contaBia.getSaldo()); // Os pedidos recusados não foram executados
+        } finally {
+            ContaCorrente.usarMetricas(null);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+import org.example.ContaCorrente;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Teste de estresse: transferências concorrentes em todos os núcleos não criam nem perdem dinheiro
+public class TransferenciaConcorrenteTeste {
+
+    private static final int QUANTIDADE_DE_CONTAS = 32;
+    private static final int QUANTIDADE_DE_TRANSFERENCIAS = 1_000_000;
+    private static final BigDecimal SALDO_INICIAL = BigDecimal.valueOf(1_000);
+
+    @Test
+    void conservarDinheiroEmTransferenciasConcorrentes() throws InterruptedException {
+        List<ContaCorrente> contas = new ArrayList<>();
+        for (int i = 0; i < QUANTIDADE_DE_CONTAS; i++) {
+            ContaCorrente contaCorrente = new ContaCorrente.AccountBuilder("9000", "90000-" + i)
+                                                           .nomeTitular("Titular " + i)
+                                                           .pix(new ArrayList<>())
+                                                           .build();
+            contaCorrente.depositar(SALDO_INICIAL);
+            contas.add(contaCorrente);
+        }
+        BigDecimal totalInicial = somarSaldos(contas);
+
+        int nucleos = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(nucleos);
+        AtomicLong concluidas = new AtomicLong();
+        AtomicLong recusadas = new AtomicLong();
+        int transferenciasPorThread = QUANTIDADE_DE_TRANSFERENCIAS / nucleos;
+
+        for (int t = 0; t < nucleos; t++) {
+            executor.execute(() -> {
+                ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                for (int i = 0; i < transferenciasPorThread; i++) {
+                    int origem  = aleatorio.nextInt(QUANTIDADE_DE_CONTAS);
+                    int destino = (origem + 1 + aleatorio.nextInt(QUANTIDADE_DE_CONTAS - 1)) % QUANTIDADE_DE_CONTAS;
+                    try {
+                        contas.get(origem).transferir("9000", "90000-" + destino, BigDecimal.valueOf(aleatorio.nextInt(1, 50)));
+                        concluidas.incrementAndGet();
+                    } catch (IllegalArgumentException saldoInsuficiente) {
+                        recusadas.incrementAndGet();
+                    } catch (CloneNotSupportedException cloneNotSupportedException) {
+                        throw new IllegalStateException(cloneNotSupportedException);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+
+        // Um deadlock entre A -> B e B -> A impediria o término
+        assertTrue(executor.awaitTermination(5, TimeUnit.MINUTES));
+        // Toda tentativa termina concluída ou recusada; uma falha inesperada derrubaria a thread sem contar
+        assertEquals((long) transferenciasPorThread * nucleos, concluidas.get() + recusadas.get());
+        assertEquals(totalInicial, somarSaldos(contas));
+        assertTrue(contas.stream().allMatch(contaCorrente -> contaCorrente.getSaldo().signum() >= 0));
+    }
+
+    private static BigDecimal somarSaldos(List<ContaCorrente> contas) {
+        return contas.stream().map(ContaCorrente::getSaldo).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}